@@ -0,0 +1,82 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import searchengine.config.SearchConfig;
+import searchengine.dto.parsing.ExtractedPage;
+import searchengine.utils.HtmlTextExtractor;
+import searchengine.utils.Lemmatizer;
+import searchengine.utils.MorphologyCache;
+import searchengine.utils.TextUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class CorpusState {
+    static final String ROOT_URL = "https://www.example-news.ru";
+    private static final String CORPUS_DIRECTORY = "/corpus/";
+    private static final String PAGES_INDEX = "pages.txt";
+    private final List<String> htmls = new ArrayList<>();
+    private final List<ExtractedPage> pages = new ArrayList<>();
+    private final List<String> links = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        HtmlTextExtractor htmlTextExtractor = new HtmlTextExtractor();
+        for (String name : readResource(PAGES_INDEX).split("\\R")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            String html = readResource(name.trim());
+            ExtractedPage page = htmlTextExtractor.extract(html);
+            htmls.add(html);
+            pages.add(page);
+            links.addAll(page.links());
+        }
+    }
+
+    public List<String> getHtmls() {
+        return htmls;
+    }
+
+    public List<ExtractedPage> getPages() {
+        return pages;
+    }
+
+    public List<String> getLinks() {
+        return links;
+    }
+
+    static Lemmatizer createLemmatizer(TextUtils textUtils, long morphologyCacheSize) throws IOException {
+        SearchConfig searchConfig = new SearchConfig();
+        searchConfig.setMorphologyCacheSize(morphologyCacheSize);
+        return new Lemmatizer(textUtils, new MorphologyCache(searchConfig));
+    }
+
+    private static String readResource(String name) {
+        try (InputStream input = CorpusState.class.getResourceAsStream(CORPUS_DIRECTORY + name)) {
+            if (input == null) {
+                throw new IllegalStateException("Corpus file not found: " + name);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                StringBuilder content = new StringBuilder();
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    content.append(buffer, 0, read);
+                }
+                return content.toString();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.dto.parsing.ExtractedPage;
+import searchengine.utils.Lemmatizer;
+import searchengine.utils.TextUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LemmatizerBenchmark {
+    @Param({"0", "200000"})
+    private long morphologyCacheSize;
+    private Lemmatizer lemmatizer;
+
+    @Setup
+    public void setUp() throws IOException {
+        lemmatizer = CorpusState.createLemmatizer(new TextUtils(), morphologyCacheSize);
+    }
+
+    @Benchmark
+    public void getLemmasStatistics(CorpusState corpus, Blackhole blackhole) {
+        for (ExtractedPage page : corpus.getPages()) {
+            blackhole.consume(lemmatizer.getLemmasStatistics(page.text()));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.config.PagesCollectorConfig;
+import searchengine.utils.CompressionUtils;
+import searchengine.utils.HostPolitenessScheduler;
+import searchengine.utils.HtmlTextExtractor;
+import searchengine.utils.PageParsingUtils;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageParsingUtilsBenchmark {
+    private final PagesCollectorConfig params = new PagesCollectorConfig();
+    private final PageParsingUtils pageParsingUtils = new PageParsingUtils(params,
+            new HostPolitenessScheduler(params), new CompressionUtils(), new HtmlTextExtractor());
+
+    @Benchmark
+    public void isValidChildLink(CorpusState corpus, Blackhole blackhole) {
+        for (String link : corpus.getLinks()) {
+            blackhole.consume(pageParsingUtils.isValidChildLink(link, CorpusState.ROOT_URL));
+        }
+    }
+
+    @Benchmark
+    public void extractPage(CorpusState corpus, Blackhole blackhole) {
+        for (String html : corpus.getHtmls()) {
+            blackhole.consume(pageParsingUtils.extractPage(html));
+        }
+    }
+}
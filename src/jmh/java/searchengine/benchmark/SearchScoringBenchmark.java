@@ -0,0 +1,59 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.dto.search.PageRelevance;
+import searchengine.utils.PostingList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchScoringBenchmark {
+    private static final double[] LEMMA_DENSITIES = {0.4, 0.05, 0.01};
+    private static final int RESULT_DEPTH = 200;
+    @Param({"100000", "1000000"})
+    private int pagesCount;
+    private List<PostingList> postingLists;
+    private PostingList frequentLemma;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        postingLists = new ArrayList<>();
+        for (double density : LEMMA_DENSITIES) {
+            PostingList.Builder builder = new PostingList.Builder();
+            for (int pageId = 1; pageId <= pagesCount; pageId++) {
+                if (random.nextDouble() < density) {
+                    builder.add(pageId, 1 + random.nextInt(20));
+                }
+            }
+            postingLists.add(builder.build());
+        }
+        frequentLemma = postingLists.get(0);
+    }
+
+    @Benchmark
+    public PostingList intersect() {
+        return PostingList.intersect(postingLists);
+    }
+
+    @Benchmark
+    public List<PageRelevance> intersectAndRank(Blackhole blackhole) {
+        PostingList pages = PostingList.intersect(postingLists);
+        blackhole.consume(pages.getMaxRank());
+        return pages.getTopPages(RESULT_DEPTH);
+    }
+
+    @Benchmark
+    public List<PageRelevance> rankFrequentLemma() {
+        return frequentLemma.getTopPages(RESULT_DEPTH);
+    }
+}
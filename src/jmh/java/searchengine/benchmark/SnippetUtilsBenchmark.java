@@ -0,0 +1,39 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.dto.parsing.ExtractedPage;
+import searchengine.utils.Lemmatizer;
+import searchengine.utils.SnippetUtils;
+import searchengine.utils.TextUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnippetUtilsBenchmark {
+    @Param({"библиотека", "смартфон с быстрой зарядкой", "списки вхождений лемм страницы"})
+    private String query;
+    private SnippetUtils snippetUtils;
+    private String[] queryLemmas;
+
+    @Setup
+    public void setUp() throws IOException {
+        TextUtils textUtils = new TextUtils();
+        Lemmatizer lemmatizer = CorpusState.createLemmatizer(textUtils, 200_000);
+        snippetUtils = new SnippetUtils(textUtils, lemmatizer);
+        queryLemmas = lemmatizer.getLemmasStatistics(query).keySet().toArray(String[]::new);
+    }
+
+    @Benchmark
+    public void getSnippet(CorpusState corpus, Blackhole blackhole) {
+        for (ExtractedPage page : corpus.getPages()) {
+            blackhole.consume(snippetUtils.getSnippet(page.text(), queryLemmas));
+        }
+    }
+}
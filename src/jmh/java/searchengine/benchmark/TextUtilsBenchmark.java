@@ -0,0 +1,73 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import searchengine.dto.parsing.ExtractedPage;
+import searchengine.utils.TextUtils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextUtilsBenchmark {
+    static final int WORDS_COUNT = 10_000;
+    private static final String[] WORDS = {"поисковый", "движок", "индексирует", "страницы", "сайтов", "и",
+            "Находит", "леммы", "в", "тексте", "МОСКВА", "новости", "по", "запросу", "пользователя"};
+    private static final String[] SEPARATORS = {" ", " ", " ", ", ", ". ", " — ", " 2023 ", " (site) "};
+    private final TextUtils textUtils = new TextUtils();
+    private String text;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < WORDS_COUNT; i++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)])
+                    .append(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+        }
+        text = builder.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS_COUNT)
+    public String[] legacyRegexTokenizer() {
+        Pattern pattern = Pattern.compile("[а-я]+", Pattern.UNICODE_CHARACTER_CLASS
+                | Pattern.CASE_INSENSITIVE);
+        return pattern.matcher(text).results()
+                .map(MatchResult::group)
+                .map(String::trim)
+                .toArray(String[]::new);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS_COUNT)
+    public String[] getWordsFromText() {
+        return textUtils.getWordsFromText(text);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS_COUNT)
+    public void forEachWord(Blackhole blackhole) {
+        textUtils.forEachWord(text, (start, end) -> blackhole.consume(end - start));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS_COUNT)
+    public void forEachLowerCaseWord(Blackhole blackhole) {
+        textUtils.forEachWord(text, (start, end) -> blackhole.consume(textUtils.toLowerCase(text, start, end)));
+    }
+
+    @Benchmark
+    public void getWordsFromCorpus(CorpusState corpus, Blackhole blackhole) {
+        for (ExtractedPage page : corpus.getPages()) {
+            blackhole.consume(textUtils.getWordsFromText(page.text()));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package searchengine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "content-store-settings")
+@Data
+public class ContentStoreConfig {
+    private String path = "data/page-content";
+    private long segmentSize = 256L * 1024 * 1024;
+    private double compactionThreshold = 0.5;
+}
@@ -3,6 +3,9 @@ package searchengine.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import searchengine.utils.FrontierOrder;
+
+import java.time.Duration;
 
 @Component
 @ConfigurationProperties(prefix = "parsing-settings")
@@ -12,4 +15,21 @@ public class PagesCollectorConfig {
     private String jsoupUserAgent;
     private int delay;
     private Boolean redirect;
+    private int batchSize = 100;
+    private int indexBatchSize = 1000;
+    private int lemmaFlushThreshold = 5000;
+    private int fetchThreads = 16;
+    private int hostFetchConcurrency = 2;
+    private Duration fetchTimeout = Duration.ofSeconds(30);
+    private int parseThreads = Runtime.getRuntime().availableProcessors();
+    private int lemmatizeThreads = Runtime.getRuntime().availableProcessors();
+    private int persistThreads = 2;
+    private int stageQueueCapacity = 200;
+    private FrontierOrder frontierOrder = FrontierOrder.BFS;
+    private int frontierMemoryCapacity = 10_000;
+    private int maxDepth = Integer.MAX_VALUE;
+    private int maxPagesPerSite = Integer.MAX_VALUE;
+    private boolean incrementalReindex;
+    private Duration statusFlushInterval = Duration.ofSeconds(5);
+    private int purgeChunkSize = 5000;
 }
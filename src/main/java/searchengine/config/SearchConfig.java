@@ -0,0 +1,20 @@
+package searchengine.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "search-settings")
+@Data
+public class SearchConfig {
+    private long postingCacheSize = 20_000_000;
+    private long morphologyCacheSize = 200_000;
+    private long resultCacheSize = 1_000;
+    private Duration resultCacheTtl = Duration.ofMinutes(10);
+    private int resultCacheDepth = 200;
+    private int searchThreads = Runtime.getRuntime().availableProcessors();
+    private int searchQueueCapacity = 100;
+}
@@ -0,0 +1,5 @@
+package searchengine.dto.indexing;
+
+public record CrawlStageMetrics(String stage, int threads, int activeThreads, int queueDepth, int queueCapacity,
+                                long completedTasks) {
+}
@@ -0,0 +1,4 @@
+package searchengine.dto.indexing;
+
+public record IndexRow(int siteId, int pageId, int lemmaId, float rank) {
+}
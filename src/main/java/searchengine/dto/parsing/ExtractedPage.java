@@ -0,0 +1,6 @@
+package searchengine.dto.parsing;
+
+import java.util.List;
+
+public record ExtractedPage(String title, String text, List<String> links) {
+}
@@ -0,0 +1,4 @@
+package searchengine.dto.parsing;
+
+public record FrontierEntry(String path, int depth) {
+}
@@ -0,0 +1,4 @@
+package searchengine.dto.parsing;
+
+public record PageSnapshot(int id, String path, String contentHash, String etag, String lastModified) {
+}
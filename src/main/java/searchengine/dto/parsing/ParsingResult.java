@@ -1,6 +1,4 @@
 package searchengine.dto.parsing;
 
-import org.jsoup.nodes.Document;
-
-public record ParsingResult(int statusCode, Document document) {
-}
\ No newline at end of file
+public record ParsingResult(int statusCode, String content, ExtractedPage page) {
+}
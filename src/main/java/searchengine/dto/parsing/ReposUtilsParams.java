@@ -2,11 +2,18 @@ package searchengine.dto.parsing;
 
 import searchengine.config.PagesCollectorConfig;
 import searchengine.repositories.PageRepository;
-import searchengine.repositories.SiteRepository;
+import searchengine.utils.CrawlExecutors;
+import searchengine.utils.HostPolitenessScheduler;
 import searchengine.utils.LemmaUtils;
+import searchengine.utils.PageContentStore;
 import searchengine.utils.PageParsingUtils;
+import searchengine.utils.SiteHeartbeat;
+import searchengine.utils.SiteIndexStats;
 import searchengine.utils.TextUtils;
 
-public record ReposUtilsParams(SiteRepository siteRepository, PageRepository pageRepository, LemmaUtils lemmaUtils,
-                               PageParsingUtils pageParsingUtils, TextUtils textUtils, PagesCollectorConfig collectorConfig) {
+public record ReposUtilsParams(PageRepository pageRepository, LemmaUtils lemmaUtils,
+                               PageParsingUtils pageParsingUtils, TextUtils textUtils, PagesCollectorConfig collectorConfig,
+                               HostPolitenessScheduler politenessScheduler, CrawlExecutors crawlExecutors,
+                               PageContentStore pageContentStore, SiteIndexStats siteIndexStats,
+                               SiteHeartbeat siteHeartbeat) {
 }
@@ -0,0 +1,4 @@
+package searchengine.dto.search;
+
+public record PageRelevance(int pageId, float relevance) {
+}
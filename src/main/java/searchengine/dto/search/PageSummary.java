@@ -0,0 +1,4 @@
+package searchengine.dto.search;
+
+public record PageSummary(int id, String path, String siteUrl, String siteName) {
+}
@@ -0,0 +1,4 @@
+package searchengine.dto.search;
+
+public record PageText(String title, String text) {
+}
@@ -0,0 +1,6 @@
+package searchengine.dto.search;
+
+import java.util.List;
+
+public record SearchHits(int count, float maxRelevance, List<PageRelevance> topPages) {
+}
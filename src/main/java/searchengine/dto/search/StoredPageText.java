@@ -0,0 +1,4 @@
+package searchengine.dto.search;
+
+public record StoredPageText(int id, String title, byte[] text) {
+}
@@ -0,0 +1,7 @@
+package searchengine.exceptions;
+
+public class InvalidPagingException extends RuntimeException {
+    public InvalidPagingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package searchengine.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+
+import static searchengine.migration.SchemaUtils.*;
+
+/**
+ * Columns and tables added to the released schema by the crawler and search changes. A database adopted at
+ * version 1 may already have some of them from ddl-auto: update, so each one is added only if it is missing.
+ */
+@Component
+public class V2__Crawl_metadata_and_content_store extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        addColumnIfMissing(connection, "site", "active", "BOOLEAN NOT NULL DEFAULT TRUE");
+        addColumnIfMissing(connection, "page", "content_hash", "CHAR(32)");
+        addColumnIfMissing(connection, "page", "etag", "VARCHAR(255)");
+        addColumnIfMissing(connection, "page", "last_modified", "VARCHAR(64)");
+        addColumnIfMissing(connection, "page", "title", "TEXT");
+        addColumnIfMissing(connection, "page", "plain_text", "MEDIUMBLOB");
+        if (columnExists(connection, "page", "content")) {
+            execute(connection, "ALTER TABLE page MODIFY content MEDIUMTEXT NULL");
+        }
+        if (!tableExists(connection, "page_content")) {
+            execute(connection, """
+                    CREATE TABLE page_content
+                    (
+                        page_id INT      NOT NULL,
+                        content LONGBLOB NOT NULL,
+                        PRIMARY KEY (page_id),
+                        CONSTRAINT FK_PAGE_CONTENT_PAGE_ID FOREIGN KEY (page_id) REFERENCES page (id)
+                            ON DELETE CASCADE ON UPDATE NO ACTION
+                    ) ENGINE = InnoDB""");
+        }
+    }
+}
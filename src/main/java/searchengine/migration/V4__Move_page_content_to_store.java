@@ -0,0 +1,92 @@
+package searchengine.migration;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import searchengine.utils.CompressionUtils;
+import searchengine.utils.SegmentFilePageContentStore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static searchengine.migration.SchemaUtils.columnExists;
+
+/**
+ * Pages indexed before the content store kept their HTML in page.content, which search no longer reads. Copies it
+ * into the configured store in chunks; pages that already have stored content are skipped, so an interrupted run
+ * can be repeated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class V4__Move_page_content_to_store extends BaseJavaMigration {
+    private static final int CHUNK_SIZE = 500;
+    private final CompressionUtils compressionUtils;
+    private final ObjectProvider<SegmentFilePageContentStore> segmentStore;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (!columnExists(connection, "page", "content")) {
+            return;
+        }
+        SegmentFilePageContentStore segmentFileStore = segmentStore.getIfAvailable();
+        long moved = 0;
+        int lastId = 0;
+        Map<Integer, String> chunk;
+        while (!(chunk = readChunk(connection, lastId, segmentFileStore == null)).isEmpty()) {
+            if (segmentFileStore == null) {
+                insertIntoPageContent(connection, chunk);
+            } else {
+                for (Map.Entry<Integer, String> page : chunk.entrySet()) {
+                    if (segmentFileStore.find(page.getKey()).isEmpty()) {
+                        segmentFileStore.save(page.getKey(), page.getValue());
+                    }
+                }
+            }
+            moved += chunk.size();
+            lastId = Collections.max(chunk.keySet());
+        }
+        log.info("Moved content of {} pages from page.content to the content store", moved);
+    }
+
+    private Map<Integer, String> readChunk(Connection connection, int lastId, boolean skipStored)
+            throws SQLException {
+        String sql = "SELECT p.id, p.content FROM page p "
+                + (skipStored ? "LEFT JOIN page_content c ON c.page_id = p.id " : "")
+                + "WHERE p.id > ? AND p.content IS NOT NULL AND p.content <> '' "
+                + (skipStored ? "AND c.page_id IS NULL " : "")
+                + "ORDER BY p.id LIMIT ?";
+        Map<Integer, String> chunk = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, lastId);
+            statement.setInt(2, CHUNK_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    chunk.put(resultSet.getInt(1), resultSet.getString(2));
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private void insertIntoPageContent(Connection connection, Map<Integer, String> chunk) throws SQLException {
+        try (PreparedStatement statement =
+                     connection.prepareStatement("INSERT INTO page_content (page_id, content) VALUES (?, ?)")) {
+            for (Map.Entry<Integer, String> page : chunk.entrySet()) {
+                statement.setInt(1, page.getKey());
+                statement.setBytes(2, compressionUtils.compress(page.getValue()));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
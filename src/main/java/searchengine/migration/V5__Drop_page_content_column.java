@@ -0,0 +1,26 @@
+package searchengine.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+
+import static searchengine.migration.SchemaUtils.columnExists;
+import static searchengine.migration.SchemaUtils.execute;
+
+/**
+ * Raw HTML lives in the content store once V4 has copied it there. A database created by ddl-auto after the
+ * content store was introduced never had the column.
+ */
+@Component
+public class V5__Drop_page_content_column extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (columnExists(connection, "page", "content")) {
+            execute(connection, "ALTER TABLE page DROP COLUMN content");
+        }
+    }
+}
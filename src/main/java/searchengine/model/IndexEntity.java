@@ -5,7 +5,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "indexes")
+@Table(name = "indexes", indexes = {
+        @Index(name = "IDX_INDEX_LEMMA_PAGE_RANK", columnList = "lemma_id, page_id, rank"),
+        @Index(name = "IDX_INDEX_PAGE_LEMMA", columnList = "page_id, lemma_id")})
 @Data
 @NoArgsConstructor
 public class IndexEntity {
@@ -0,0 +1,23 @@
+package searchengine.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "page_content")
+@Data
+@NoArgsConstructor
+public class PageContentEntity {
+    @Id
+    @Column(name = "page_id")
+    private int pageId;
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "page_id",
+            foreignKey = @ForeignKey(name = "FK_PAGE_CONTENT_PAGE_ID",
+                    foreignKeyDefinition = "FOREIGN KEY (`page_id`) REFERENCES `page`(`id`) ON DELETE CASCADE ON UPDATE NO ACTION"))
+    private PageEntity page;
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] content;
+}
@@ -3,12 +3,14 @@ package searchengine.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import searchengine.dto.parsing.PageSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "page", indexes = @Index(name = "path", columnList = "path"))
+@Table(name = "page", uniqueConstraints = @UniqueConstraint(
+        name = "UC_SITE_PATH_HASH", columnNames = {"site_id", "path_hash"}))
 @Data
 @NoArgsConstructor
 public class PageEntity {
@@ -24,10 +26,22 @@ public class PageEntity {
     private SiteEntity site;
     @Column(nullable = false, columnDefinition = "TEXT")
     private String path;
+    @Column(name = "path_hash", columnDefinition = "BINARY(16)", insertable = false, updatable = false)
+    private byte[] pathHash;
     @Column(nullable = false)
     private int code;
-    @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
+    @Transient
     private String content;
+    @Column(columnDefinition = "TEXT")
+    private String title;
+    @Column(name = "plain_text", columnDefinition = "MEDIUMBLOB")
+    private byte[] plainText;
+    @Column(name = "content_hash", columnDefinition = "CHAR(32)")
+    private String contentHash;
+    @Column(columnDefinition = "VARCHAR(255)")
+    private String etag;
+    @Column(name = "last_modified", columnDefinition = "VARCHAR(64)")
+    private String lastModified;
 
 
 
@@ -42,6 +56,14 @@ public class PageEntity {
         this(site, path, 0, "");
     }
 
+    public PageEntity(SiteEntity site, PageSnapshot snapshot) {
+        this(site, snapshot.path());
+        this.id = snapshot.id();
+        this.contentHash = snapshot.contentHash();
+        this.etag = snapshot.etag();
+        this.lastModified = snapshot.lastModified();
+    }
+
     public void update(int code, String content) {
         update(code);
         this.content = content;
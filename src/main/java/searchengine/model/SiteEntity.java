@@ -10,7 +10,9 @@ import java.util.List;
 
 
 @Entity
-@Table(name = "site")
+@Table(name = "site", indexes = {
+        @Index(name = "IDX_SITE_URL", columnList = "url"),
+        @Index(name = "IDX_SITE_NAME", columnList = "name")})
 @Data
 @NoArgsConstructor
 public class SiteEntity {
@@ -32,6 +34,8 @@ public class SiteEntity {
     private String url;
     @Column(columnDefinition = "VARCHAR(255)", nullable = false)
     private String name;
+    @Column(columnDefinition = "BOOLEAN NOT NULL DEFAULT TRUE")
+    private boolean active = true;
 
     public SiteEntity(String name, String url) {
         this(name, url, SiteStatus.INDEXING);
@@ -0,0 +1,18 @@
+package searchengine.repositories;
+
+import org.springframework.stereotype.Repository;
+import searchengine.dto.indexing.IndexRow;
+import searchengine.utils.PostingList;
+
+import java.util.List;
+
+@Repository
+public interface IndexRepositoryCustomized {
+    void insertAll(List<IndexRow> rows, int batchSize);
+
+    void deleteAllByPageId(int pageId);
+
+    int deleteByPageIdIn(List<Integer> pageIds, int limit);
+
+    PostingList findPostingsByLemmaId(int lemmaId);
+}
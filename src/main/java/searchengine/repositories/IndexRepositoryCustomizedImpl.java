@@ -0,0 +1,55 @@
+package searchengine.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.dto.indexing.IndexRow;
+import searchengine.utils.PostingList;
+
+import java.util.Collections;
+import java.util.List;
+
+@Transactional
+@RequiredArgsConstructor
+public class IndexRepositoryCustomizedImpl implements IndexRepositoryCustomized {
+    static final String INSERT_SQL = "INSERT INTO indexes (page_id, lemma_id, `rank`) VALUES (?, ?, ?)";
+    static final String DELETE_BY_PAGE_ID_SQL = "DELETE FROM indexes WHERE page_id = ?";
+    static final String FIND_POSTINGS_SQL = "SELECT page_id, `rank` FROM indexes WHERE lemma_id = ? ORDER BY page_id";
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<IndexRow> rows, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (statement, row) -> {
+            statement.setInt(1, row.pageId());
+            statement.setInt(2, row.lemmaId());
+            statement.setFloat(3, row.rank());
+        });
+    }
+
+    @Override
+    public void deleteAllByPageId(int pageId) {
+        jdbcTemplate.update(DELETE_BY_PAGE_ID_SQL, pageId);
+    }
+
+    @Override
+    public int deleteByPageIdIn(List<Integer> pageIds, int limit) {
+        if (pageIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(deleteByPageIdInSql(pageIds.size(), limit), pageIds.toArray());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PostingList findPostingsByLemmaId(int lemmaId) {
+        PostingList.Builder builder = new PostingList.Builder();
+        jdbcTemplate.query(FIND_POSTINGS_SQL,
+                resultSet -> builder.add(resultSet.getInt(1), resultSet.getFloat(2)), lemmaId);
+        return builder.build();
+    }
+
+    static String deleteByPageIdInSql(int pageCount, int limit) {
+        return "DELETE FROM indexes WHERE page_id IN ("
+                + String.join(", ", Collections.nCopies(pageCount, "?")) + ") LIMIT " + limit;
+    }
+}
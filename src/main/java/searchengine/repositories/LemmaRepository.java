@@ -14,6 +14,9 @@ public interface LemmaRepository extends CrudRepository<LemmaEntity, Integer>, L
     @Query("SELECT l FROM LemmaEntity l WHERE l IN (SELECT lemma FROM IndexEntity i WHERE i.page = ?1)")
     List<LemmaEntity> findAllByPage(PageEntity page);
 
+    @Query("SELECT i.lemma FROM IndexEntity i WHERE i.page.id = ?1")
+    List<LemmaEntity> findAllByPageId(int pageId);
+
     Optional<LemmaEntity> findBySiteAndLemma(SiteEntity site, String lemma);
 
     int countBySite(SiteEntity siteEntity);
@@ -2,9 +2,18 @@ package searchengine.repositories;
 
 import org.springframework.stereotype.Repository;
 import searchengine.model.LemmaEntity;
+import searchengine.model.SiteEntity;
 
 import java.util.List;
+import java.util.Map;
+
 @Repository
 public interface LemmaRepositoryCustomized {
-    void decrementFrequencyOrDelete(List<LemmaEntity> lemmas);
+    int decrementFrequencyOrDelete(List<LemmaEntity> lemmas);
+
+    void addFrequencies(Map<Integer, Integer> frequencyDeltas, int batchSize);
+
+    int deleteUnused(SiteEntity site);
+
+    int deleteBySite(SiteEntity site, int limit);
 }
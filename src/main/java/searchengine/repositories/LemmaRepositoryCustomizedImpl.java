@@ -2,20 +2,45 @@ package searchengine.repositories;
 
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.LemmaEntity;
+import searchengine.model.SiteEntity;
 
 import java.util.List;
+import java.util.Map;
 
 @Transactional
 @RequiredArgsConstructor
 public class LemmaRepositoryCustomizedImpl implements LemmaRepositoryCustomized {
+    static final String ADD_FREQUENCY_SQL = "UPDATE lemma SET frequency = frequency + ? WHERE id = ?";
+    static final String DELETE_BY_SITE_SQL = "DELETE FROM lemma WHERE site_id = ? LIMIT ?";
     private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
     @Override
-    public void decrementFrequencyOrDelete(List<LemmaEntity> lemmas) {
+    public int decrementFrequencyOrDelete(List<LemmaEntity> lemmas) {
         String updateHql = "UPDATE LemmaEntity l SET l.frequency = l.frequency - 1 WHERE l IN :lemmas";
         String deleteHql = "DELETE FROM LemmaEntity l WHERE l IN :lemmas AND l.frequency < 1";
         entityManager.createQuery(updateHql).setParameter("lemmas", lemmas).executeUpdate();
-        entityManager.createQuery(deleteHql).setParameter("lemmas", lemmas).executeUpdate();
+        return entityManager.createQuery(deleteHql).setParameter("lemmas", lemmas).executeUpdate();
+    }
+
+    @Override
+    public void addFrequencies(Map<Integer, Integer> frequencyDeltas, int batchSize) {
+        jdbcTemplate.batchUpdate(ADD_FREQUENCY_SQL, frequencyDeltas.entrySet(), batchSize, (statement, delta) -> {
+            statement.setInt(1, delta.getValue());
+            statement.setInt(2, delta.getKey());
+        });
+    }
+
+    @Override
+    public int deleteUnused(SiteEntity site) {
+        String deleteHql = "DELETE FROM LemmaEntity l WHERE l.site = :site AND l.frequency < 1";
+        return entityManager.createQuery(deleteHql).setParameter("site", site).executeUpdate();
+    }
+
+    @Override
+    public int deleteBySite(SiteEntity site, int limit) {
+        return jdbcTemplate.update(DELETE_BY_SITE_SQL, site.getId(), limit);
     }
 }
@@ -1,20 +1,45 @@
 package searchengine.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.dto.parsing.PageSnapshot;
+import searchengine.dto.search.PageSummary;
+import searchengine.dto.search.StoredPageText;
 import searchengine.model.PageEntity;
 import searchengine.model.SiteEntity;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Repository
 public interface PageRepository extends CrudRepository<PageEntity, Integer>, PageRepositoryCustomized {
-    @Query("SELECT p.path FROM PageEntity p WHERE p.path IN ?1 AND p.site = ?2")
-    Set<String> getAllPathsBySitePathIn(Set<String> paths, SiteEntity site);
-
+    @Query("SELECT p FROM PageEntity p WHERE p.site = ?2 "
+            + "AND p.pathHash = function('unhex', function('md5', ?1)) AND p.path = ?1")
     Optional<PageEntity> findByPathAndSite(String path, SiteEntity site);
 
     int countBySite(SiteEntity siteEntity);
+
+    @Query("SELECT new searchengine.dto.parsing.PageSnapshot(p.id, p.path, p.contentHash, p.etag, p.lastModified) "
+            + "FROM PageEntity p WHERE p.site = ?1")
+    List<PageSnapshot> findSnapshotsBySite(SiteEntity site);
+
+    @Query("SELECT new searchengine.dto.search.PageSummary(p.id, p.path, s.url, s.name) "
+            + "FROM PageEntity p JOIN p.site s WHERE p.id IN ?1")
+    List<PageSummary> findSummariesByIdIn(List<Integer> ids);
+
+    @Query("SELECT new searchengine.dto.search.StoredPageText(p.id, p.title, p.plainText) "
+            + "FROM PageEntity p WHERE p.id IN ?1")
+    List<StoredPageText> findTextsByIdIn(List<Integer> ids);
+
+    @Query("SELECT p.id FROM PageEntity p WHERE p.site = ?1")
+    List<Integer> findIdsBySite(SiteEntity site, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PageEntity p WHERE p.id IN ?1")
+    void deleteByIdIn(List<Integer> ids);
 }
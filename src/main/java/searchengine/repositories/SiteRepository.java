@@ -7,18 +7,34 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import searchengine.model.SiteEntity;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SiteRepository extends ListCrudRepository<SiteEntity, Integer> {
-    Optional<SiteEntity> findByUrlLike(String url);
+    Optional<SiteEntity> findByUrlLikeAndActiveTrue(String url);
+
+    Optional<SiteEntity> findFirstByUrlLikeOrderByIdDesc(String url);
+
+    List<SiteEntity> findByUrlLikeAndActiveFalse(String url);
+
+    List<SiteEntity> findByNameInAndActiveTrue(String[] names);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SiteEntity s SET s.active = CASE WHEN s.id = :id THEN true ELSE false END WHERE s.url = :url")
+    void activate(int id, String url);
 
     @Modifying
     @Transactional
-    @Query("DELETE FROM SiteEntity s WHERE s.name IN :names")
-    void deleteByNameIn(String[] names);
+    @Query("DELETE FROM SiteEntity s WHERE s.id = :id")
+    void removeById(int id);
 
-    List<SiteEntity> findByNameIn(String[] names);
+    @Modifying
+    @Transactional
+    @Query("UPDATE SiteEntity s SET s.statusTime = :statusTime " +
+            "WHERE s.id = :id AND s.status = searchengine.model.SiteStatus.INDEXING")
+    void updateStatusTime(int id, LocalDateTime statusTime);
 }
 
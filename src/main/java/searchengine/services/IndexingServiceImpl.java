@@ -1,7 +1,7 @@
 package searchengine.services;
 
-import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import searchengine.config.PagesCollectorConfig;
 import searchengine.config.SiteConfig;
@@ -13,18 +13,33 @@ import searchengine.config.SitesList;
 import searchengine.repositories.LemmaRepository;
 import searchengine.repositories.PageRepository;
 import searchengine.repositories.SiteRepository;
+import searchengine.utils.CrawlExecutors;
+import searchengine.utils.HostPolitenessScheduler;
+import searchengine.utils.IndexBatchWriter;
+import searchengine.utils.InvertedIndex;
+import searchengine.utils.LemmaDictionary;
 import searchengine.utils.LemmaUtils;
+import searchengine.utils.MorphologyCache;
+import searchengine.utils.PageContentStore;
 import searchengine.utils.PageParsingUtils;
 import searchengine.utils.PagesCollector;
+import searchengine.utils.SearchResultCache;
+import searchengine.utils.SiteGenerationPurger;
+import searchengine.utils.SiteHeartbeat;
+import searchengine.utils.SiteIndexStats;
 import searchengine.utils.TextUtils;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.*;
-import java.util.function.Predicate;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class IndexingServiceImpl implements IndexingService {
@@ -36,69 +51,133 @@ public class IndexingServiceImpl implements IndexingService {
     private final SitesList sitesList;
     private final LemmaUtils lemmaUtils;
     private final LemmaRepository lemmaRepository;
-    @Getter
-    private boolean isStartedIndexing;
+    private final LemmaDictionary lemmaDictionary;
+    private final IndexBatchWriter indexBatchWriter;
+    private final HostPolitenessScheduler politenessScheduler;
+    private final CrawlExecutors crawlExecutors;
+    private final InvertedIndex invertedIndex;
+    private final MorphologyCache morphologyCache;
+    private final PageContentStore pageContentStore;
+    private final SearchResultCache searchResultCache;
+    private final SiteIndexStats siteIndexStats;
+    private final SiteHeartbeat siteHeartbeat;
+    private final SiteGenerationPurger siteGenerationPurger;
+    private final AtomicBoolean isStartedIndexing = new AtomicBoolean();
+    private final AtomicInteger activeCrawls = new AtomicInteger();
+    private final Map<Integer, PagesCollector> activeCollectors = new ConcurrentHashMap<>();
+    private final Set<String> crawledSiteUrls = ConcurrentHashMap.newKeySet();
+    private volatile boolean isStopRequested;
 
     @Override
     public IndexingResponse startIndexing() {
-        if (isStartedIndexing) {
+        if (!isStartedIndexing.compareAndSet(false, true)) {
             return new IndexingResponse(false, "Индексация уже запущена");
         }
-        List<SiteConfig> sitesConfig = sitesList.getSites();
-        deleteSitesFromDB(sitesConfig);
+        isStopRequested = false;
+        activeCrawls.set(1);
+        try {
+            List<SiteConfig> sitesConfig = sitesList.getSites();
 //        initPagesCollector();
-        isStartedIndexing = true;
-        for (SiteConfig siteConfig : sitesConfig) {
-            SiteEntity site = new SiteEntity(siteConfig.getName(),
-                    pageParsingUtils.normalizeSiteUrl(siteConfig.getUrl()));
-            siteRepository.save(site);
-            parseSite(site);
+            for (SiteConfig siteConfig : sitesConfig) {
+                purgeInactiveGenerations(siteConfig);
+                SiteEntity site = getSiteForReindex(siteConfig);
+                siteRepository.save(site);
+                siteIndexStats.seed(site);
+                crawledSiteUrls.add(site.getUrl());
+                activeCrawls.incrementAndGet();
+                parseSite(site);
+            }
+        } finally {
+            finishCrawl();
         }
         return new IndexingResponse(true, "");
     }
 
+    @Override
+    public boolean isStartedIndexing() {
+        return isStartedIndexing.get();
+    }
+
     private void parseSite(SiteEntity site) {
-        ForkJoinPool.commonPool().execute(() -> {
+        crawlExecutors.getSiteExecutor().execute(() -> {
+            siteHeartbeat.start(site);
             try {
                 pageParsingUtils.getHttpResponse(new URL(site.getUrl()));
-                ReposUtilsParams parameters = new ReposUtilsParams(siteRepository, pageRepository,lemmaUtils,
-                        pageParsingUtils, textUtils, params);
-                switch (ForkJoinPool.commonPool().invoke(new PagesCollector(site, parameters))) {
+                ReposUtilsParams parameters = new ReposUtilsParams(pageRepository, lemmaUtils,
+                        pageParsingUtils, textUtils, params, politenessScheduler, crawlExecutors, pageContentStore,
+                        siteIndexStats, siteHeartbeat);
+                PagesCollector pagesCollector = new PagesCollector(site, parameters);
+                activeCollectors.put(site.getId(), pagesCollector);
+                if (isStopRequested) {
+                    pagesCollector.cancel();
+                }
+                switch (pagesCollector.collect()) {
                     case COMPLETED -> site.update(SiteStatus.INDEXED);
                     case INTERRUPTED -> site.update("Индексация остановлена пользователем");
                 }
             } catch (IOException e) {
                 site.update("Ошибка индексации. Сайт недоступен.");
             } finally {
+                siteHeartbeat.stop(site);
+                activeCollectors.remove(site.getId());
+                indexBatchWriter.flush();
+                lemmaDictionary.release(site);
+                siteIndexStats.addLemmas(site, -lemmaRepository.deleteUnused(site));
                 siteRepository.save(site);
-                if (isStartedIndexing && isAllSitesParsingEnded()) {
-                    isStartedIndexing = false;
+                if (site.getStatus() == SiteStatus.INDEXED && !site.isActive()) {
+                    activateGeneration(site);
                 }
+                searchResultCache.invalidate(site.getUrl());
+                crawledSiteUrls.remove(site.getUrl());
+                log.info("Morphology cache after crawling {}: {}", site.getUrl(), morphologyCache.getStats());
+                finishCrawl();
             }
         });
     }
 
-    private boolean isAllSitesParsingEnded() {
-        return siteRepository.findAll().stream()
-                .allMatch(Predicate.not(
-                        i -> i.getStatus().equals(SiteStatus.INDEXING)));
+    private void finishCrawl() {
+        if (activeCrawls.decrementAndGet() == 0) {
+            isStartedIndexing.set(false);
+        }
     }
 
-    private void deleteSitesFromDB(List<SiteConfig> sites) {
-        String[] siteNames = sites.stream()
-                .map(SiteConfig::getName)
-                .toArray(String[]::new);
-        siteRepository.deleteByNameIn(siteNames);
+    private void activateGeneration(SiteEntity site) {
+        Optional<SiteEntity> previousGeneration = siteRepository.findByUrlLikeAndActiveTrue(site.getUrl());
+        siteRepository.activate(site.getId(), site.getUrl());
+        site.setActive(true);
+        invertedIndex.invalidateAll();
+        previousGeneration.ifPresent(siteGenerationPurger::purge);
+    }
 
+    private void purgeInactiveGenerations(SiteConfig siteConfig) {
+        String url = pageParsingUtils.normalizeSiteUrl(siteConfig.getUrl());
+        siteRepository.findByUrlLikeAndActiveFalse(url).forEach(siteGenerationPurger::purge);
+    }
+
+    private SiteEntity getSiteForReindex(SiteConfig siteConfig) {
+        String url = pageParsingUtils.normalizeSiteUrl(siteConfig.getUrl());
+        Optional<SiteEntity> activeGeneration = siteRepository.findByUrlLikeAndActiveTrue(url);
+        if (!params.isIncrementalReindex()) {
+            SiteEntity site = new SiteEntity(siteConfig.getName(), url);
+            site.setActive(activeGeneration.isEmpty());
+            return site;
+        }
+        return activeGeneration
+                .map(site -> {
+                    site.setLastError(null);
+                    site.update(SiteStatus.INDEXING);
+                    return site;
+                })
+                .orElseGet(() -> new SiteEntity(siteConfig.getName(), url));
     }
 
     @Override
     public IndexingResponse stopIndexing() {
-        if (!isStartedIndexing) {
+        if (!isStartedIndexing.get()) {
             return new IndexingResponse(false, "Индексация не запущена");
         }
-        isStartedIndexing = false;
-        PagesCollector.stopParsing();
+        isStopRequested = true;
+        activeCollectors.values().forEach(PagesCollector::cancel);
         return new IndexingResponse(true, "");
     }
 
@@ -113,7 +192,12 @@ public class IndexingServiceImpl implements IndexingService {
                         "Данная страница находится за пределами сайтов, указанных в конфигурационном файле");
             }
             SiteConfig siteConfigForSpecifiedUrl = optionalSiteConfigForSpecifiedUrl.get();
+            if (crawledSiteUrls.contains(pageParsingUtils.normalizeSiteUrl(siteConfigForSpecifiedUrl.getUrl()))) {
+                return new IndexingResponse(false,
+                        "Сайт этой страницы сейчас индексируется. Повторите запрос после окончания индексации");
+            }
             siteEntity = findOrAddSite(siteConfigForSpecifiedUrl);
+            siteIndexStats.seed(siteEntity);
             ParsingResult response = pageParsingUtils.getHttpResponse(new URL(url));
             if (response.statusCode() >= 400) {
                 return new IndexingResponse(false,
@@ -121,9 +205,15 @@ public class IndexingServiceImpl implements IndexingService {
             }
             deletePageIfExists(relativePath, siteEntity);
             PageEntity page = new PageEntity(siteEntity, relativePath,
-                    response.statusCode(), response.document().html());
+                    response.statusCode(), response.content());
+            String text = pageParsingUtils.storePageText(page, response.page());
             pageRepository.save(page);
-            lemmaUtils.addLemmasAndIndexesToDB(siteEntity, page);
+            siteIndexStats.addPages(siteEntity, 1);
+            pageContentStore.save(page.getId(), page.getContent());
+            lemmaUtils.addLemmasAndIndexesToDB(siteEntity, page, lemmaUtils.getLemmasStatistics(text));
+            indexBatchWriter.flush();
+            lemmaDictionary.flush(siteEntity);
+            searchResultCache.invalidate(pageParsingUtils.normalizeSiteUrl(siteEntity.getUrl()));
             siteEntity.update(SiteStatus.INDEXED);
             siteRepository.save(siteEntity);
             return new IndexingResponse(true, "");
@@ -140,9 +230,10 @@ public class IndexingServiceImpl implements IndexingService {
 
     private SiteEntity findOrAddSite(SiteConfig siteConfig) {
         SiteEntity siteForSpecifiedUrl;
-        Optional<SiteEntity> optionalSite = siteRepository.findByUrlLike(siteConfig.getUrl());
+        String url = pageParsingUtils.normalizeSiteUrl(siteConfig.getUrl());
+        Optional<SiteEntity> optionalSite = siteRepository.findByUrlLikeAndActiveTrue(url);
         if (optionalSite.isEmpty()) {
-            siteForSpecifiedUrl = new SiteEntity(siteConfig.getName(), siteConfig.getUrl());
+            siteForSpecifiedUrl = new SiteEntity(siteConfig.getName(), url);
         } else {
             siteForSpecifiedUrl = optionalSite.get();
             siteForSpecifiedUrl.update(SiteStatus.INDEXING);
@@ -154,9 +245,15 @@ public class IndexingServiceImpl implements IndexingService {
     private void deletePageIfExists(String path, SiteEntity site) {
         Optional<PageEntity> optionalPage = pageRepository.findByPathAndSite(path, site);
         optionalPage.ifPresent(page -> {
+            indexBatchWriter.flush();
             List<LemmaEntity> lemmas = lemmaRepository.findAllByPage(page);
-            lemmaRepository.decrementFrequencyOrDelete(lemmas);
+            lemmaDictionary.flush(site);
+            siteIndexStats.addLemmas(site, -lemmaRepository.decrementFrequencyOrDelete(lemmas));
+            lemmaDictionary.evict(site, lemmas);
+            pageContentStore.delete(page.getId());
             pageRepository.delete(page);
+            siteIndexStats.addPages(site, -1);
+            invertedIndex.invalidate(lemmas.stream().map(LemmaEntity::getId).toList());
         });
     }
 }
@@ -7,30 +7,40 @@ import searchengine.config.SiteConfig;
 import searchengine.config.SitesList;
 import searchengine.dto.search.*;
 import searchengine.exceptions.EmptyQueryException;
+import searchengine.exceptions.InvalidPagingException;
 import searchengine.exceptions.NotIndexedSiteException;
-import searchengine.model.IndexEntity;
 import searchengine.model.LemmaEntity;
-import searchengine.model.PageEntity;
 import searchengine.model.SiteEntity;
-import searchengine.repositories.IndexRepository;
 import searchengine.repositories.LemmaRepository;
+import searchengine.repositories.PageRepository;
 import searchengine.repositories.SiteRepository;
-import searchengine.utils.LemmaUtils;
+import searchengine.utils.InvertedIndex;
+import searchengine.utils.Lemmatizer;
+import searchengine.utils.PageContentStore;
 import searchengine.utils.PageParsingUtils;
+import searchengine.utils.PostingList;
+import searchengine.utils.SearchExecutor;
+import searchengine.utils.SearchResultCache;
+import searchengine.utils.SiteIndexStats;
 import searchengine.utils.SnippetUtils;
 
 import java.util.*;
-import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SearchServiceImpl implements SearchService {
-    private final LemmaUtils lemmaUtils;
+    private final Lemmatizer lemmatizer;
     private final SnippetUtils snippetUtils;
     private final LemmaRepository lemmaRepository;
     private final SiteRepository siteRepository;
-    private final IndexRepository indexRepository;
+    private final PageRepository pageRepository;
+    private final InvertedIndex invertedIndex;
+    private final PageContentStore pageContentStore;
+    private final SearchResultCache searchResultCache;
+    private final SearchExecutor searchExecutor;
+    private final SiteIndexStats siteIndexStats;
     private final PageParsingUtils pageParsingUtils;
     private final SitesList sitesList;
 
@@ -39,15 +49,18 @@ public class SearchServiceImpl implements SearchService {
     public SearchResponse getQueryResponse(Query query) {
         String site = query.site();
         String queryText = query.queryText();
-        Map<PageEntity, Float> pagesWithRelevance;
+        SearchHits searchHits;
         String[] queryLemmas = getQueryLemmas(queryText);
         try {
             if (queryText.isBlank()) {
                 throw new EmptyQueryException("Задан пустой поисковый запрос");
             }
-            pagesWithRelevance = getSearchResults(query, queryLemmas);
-            return generateResponse(pagesWithRelevance, query, queryLemmas);
-        } catch (EmptyQueryException e) {
+            if (query.offset() < 0 || query.limit() <= 0) {
+                throw new InvalidPagingException("Некорректные параметры offset и limit");
+            }
+            searchHits = getSearchResults(query, queryLemmas);
+            return generateResponse(searchHits, query, queryLemmas);
+        } catch (EmptyQueryException | InvalidPagingException e) {
             return new SearchErrorResponse(false, HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (NotIndexedSiteException e) {
             String message = site == null ?
@@ -58,7 +71,7 @@ public class SearchServiceImpl implements SearchService {
     }
 
     private String[] getQueryLemmas(String queryText) {
-        return lemmaUtils.getLemmasStatistics(queryText).keySet().toArray(String[]::new);
+        return lemmatizer.getLemmasStatistics(queryText).keySet().toArray(String[]::new);
     }
 
     private SiteEntity[] getSites(Query query) throws RuntimeException {
@@ -68,11 +81,11 @@ public class SearchServiceImpl implements SearchService {
             String[] siteNames = sitesList.getSites().stream()
                     .map(SiteConfig::getName)
                     .toArray(String[]::new);
-            siteEntities = siteRepository.findByNameIn(siteNames).toArray(SiteEntity[]::new);
+            siteEntities = siteRepository.findByNameInAndActiveTrue(siteNames).toArray(SiteEntity[]::new);
         } else {
             siteEntities = new SiteEntity[]{
 
-                    siteRepository.findByUrlLike(pageParsingUtils.normalizeSiteUrl(site))
+                    siteRepository.findByUrlLikeAndActiveTrue(pageParsingUtils.normalizeSiteUrl(site))
                             .orElseThrow(NotIndexedSiteException::new)};
         }
         if (areNotIndexedSites(siteEntities)) {
@@ -83,41 +96,63 @@ public class SearchServiceImpl implements SearchService {
 
     private boolean areNotIndexedSites(SiteEntity[] siteEntities) {
         return siteEntities.length == 0 ||
-                Arrays.stream(siteEntities)
-                        .map(indexRepository::countIndexesBySite)
-                        .allMatch(Predicate.isEqual(0));
+                Arrays.stream(siteEntities).noneMatch(siteIndexStats::isIndexed);
+    }
+
+    private SearchHits getSearchResults(Query query, String[] queryLemmas) throws RuntimeException {
+        String siteUrl = query.site() == null ? null : pageParsingUtils.normalizeSiteUrl(query.site());
+        int requiredDepth = (int) Math.min((long) query.offset() + query.limit(), Integer.MAX_VALUE);
+        return searchResultCache.get(siteUrl, queryLemmas, requiredDepth,
+                depth -> getSearchResults(query, queryLemmas, depth));
     }
 
-    private Map<PageEntity, Float> getSearchResults(Query query, String[] queryLemmas) throws RuntimeException {
+    private SearchHits getSearchResults(Query query, String[] queryLemmas, int depth) throws RuntimeException {
         SiteEntity[] siteEntities = getSites(query);
-        Map<PageEntity, List<LemmaEntity>> pages = Arrays.stream(siteEntities)
-                .map(i -> getRelatedPagesInfo(i, queryLemmas))
-                .flatMap(map -> map.entrySet().stream())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        if (pages.isEmpty()) {
-            return Collections.emptyMap();
+        List<SearchHits> sitesHits = searchExecutor.invokeAll(Arrays.stream(siteEntities)
+                .<Supplier<SearchHits>>map(site -> () -> getSiteSearchResults(site, queryLemmas, depth))
+                .toList());
+        return mergeSitesHits(sitesHits, depth);
+    }
+
+    private SearchHits getSiteSearchResults(SiteEntity siteEntity, String[] queryLemmas, int depth) {
+        PostingList pages = getRelatedPagesInfo(siteEntity, queryLemmas);
+        return new SearchHits(pages.size(), pages.getMaxRank(), pages.getTopPages(depth));
+    }
+
+    private SearchHits mergeSitesHits(List<SearchHits> sitesHits, int depth) {
+        int count = 0;
+        float maxRelevance = 0;
+        PriorityQueue<SiteHitsCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing(SiteHitsCursor::current, PostingList.RELEVANCE_ORDER));
+        for (SearchHits siteHits : sitesHits) {
+            count += siteHits.count();
+            maxRelevance = Math.max(maxRelevance, siteHits.maxRelevance());
+            if (!siteHits.topPages().isEmpty()) {
+                cursors.add(new SiteHitsCursor(siteHits.topPages(), 0));
+            }
         }
-        return getPagesRelevance(pages);
+        List<PageRelevance> topPages = new ArrayList<>();
+        while (topPages.size() < depth && !cursors.isEmpty()) {
+            SiteHitsCursor cursor = cursors.poll();
+            topPages.add(cursor.current());
+            if (cursor.hasNext()) {
+                cursors.add(cursor.next());
+            }
+        }
+        return new SearchHits(count, maxRelevance, topPages);
     }
 
-    private Map<PageEntity, List<LemmaEntity>> getRelatedPagesInfo(SiteEntity siteEntity, String[] queryLemmas) {
+    private PostingList getRelatedPagesInfo(SiteEntity siteEntity, String[] queryLemmas) {
         List<LemmaEntity> lemmaEntities = lemmaRepository.findBySiteAndLemmaIn(siteEntity, queryLemmas);
         if (lemmaEntities.size() != queryLemmas.length) {
-            return Collections.emptyMap();
+            return PostingList.EMPTY;
         }
         filterInfrequentLemmas(lemmaEntities, siteEntity);
-        List<PageEntity> relatedPages = getRelatedPages(lemmaEntities);
-        if (relatedPages.size() == 0) {
-            return Collections.emptyMap();
-        }
-        return relatedPages.stream()
-                .collect(HashMap::new,
-                        (map, page) -> map.put(page, lemmaEntities),
-                        HashMap::putAll);
+        return getRelatedPages(lemmaEntities);
     }
 
     private void filterInfrequentLemmas(List<LemmaEntity> lemmaEntities, SiteEntity siteEntity) {
-        int pagesCount = siteEntity.getPages().size();
+        int pagesCount = siteIndexStats.getPagesCount(siteEntity);
         lemmaEntities.sort(
                 Comparator.comparing(LemmaEntity::getFrequency, Comparator.reverseOrder()));
         Iterator<LemmaEntity> iteratorLemmas = lemmaEntities.iterator();
@@ -128,62 +163,72 @@ public class SearchServiceImpl implements SearchService {
         }
     }
 
-    private List<PageEntity> getRelatedPages(List<LemmaEntity> lemmaEntities) {
-        List<PageEntity> pages = new ArrayList<>();
-        lemmaEntities.sort(Comparator.comparing(LemmaEntity::getFrequency));
-        boolean firstItem = true;
-        for (LemmaEntity lemma : lemmaEntities) {
-            if (firstItem) {
-                pages = indexRepository.findPagesByLemma(lemma);
-                firstItem = false;
-            } else {
-                pages = indexRepository.findPagesByLemmaInPages(lemma, pages);
-            }
-        }
-        return pages;
-    }
-
-    private Map<PageEntity, Float> getPagesRelevance(Map<PageEntity, List<LemmaEntity>> pages) {
-        Map<PageEntity, Float> pagesRelevance = pages.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, this::getAbsoluteRelevance));
-        float maxAbsoluteRelevance = Collections.max(pagesRelevance.values(), Float::compareTo);
-        return pagesRelevance.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey,
-                        i -> i.getValue() / maxAbsoluteRelevance));
-
-    }
-
-    private float getAbsoluteRelevance(Map.Entry<PageEntity, List<LemmaEntity>> entry) {
-        return indexRepository.findByPageAndLemmaIn(entry.getKey(), entry.getValue()).stream()
-                .map(IndexEntity::getRank)
-                .reduce(0F, Float::sum);
+    private PostingList getRelatedPages(List<LemmaEntity> lemmaEntities) {
+        return PostingList.intersect(lemmaEntities.stream()
+                .map(lemma -> invertedIndex.getPostings(lemma.getId()))
+                .toList());
     }
 
-    private SearchSuccessfulResponse generateResponse(Map<PageEntity, Float> pages,
+    private SearchSuccessfulResponse generateResponse(SearchHits searchHits,
                                                       Query query,
                                                       String[] queryLemmas) {
-        List<SearchResult> results = pages.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
+        List<PageRelevance> pagesToShow = searchHits.topPages().stream()
                 .skip(query.offset())
                 .limit(query.limit())
-                .map(i -> generateSearchResult(queryLemmas, i))
                 .toList();
-        return new SearchSuccessfulResponse(true, pages.size(), results);
+        if (pagesToShow.isEmpty()) {
+            return new SearchSuccessfulResponse(true, searchHits.count(), Collections.emptyList());
+        }
+        List<Integer> pageIds = pagesToShow.stream().map(PageRelevance::pageId).toList();
+        Map<Integer, PageSummary> summaries = pageRepository.findSummariesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(PageSummary::id, summary -> summary));
+        Map<Integer, PageText> texts = getPageTexts(pageIds);
+        List<SearchResult> results = pagesToShow.stream()
+                .filter(i -> summaries.containsKey(i.pageId()) && texts.containsKey(i.pageId()))
+                .map(i -> generateSearchResult(queryLemmas, summaries.get(i.pageId()), texts.get(i.pageId()),
+                        i.relevance() / searchHits.maxRelevance()))
+                .toList();
+        return new SearchSuccessfulResponse(true, searchHits.count(), results);
+    }
+
+    private Map<Integer, PageText> getPageTexts(List<Integer> pageIds) {
+        Map<Integer, PageText> texts = new HashMap<>();
+        List<Integer> legacyPageIds = new ArrayList<>();
+        for (StoredPageText storedText : pageRepository.findTextsByIdIn(pageIds)) {
+            if (storedText.text() == null) {
+                legacyPageIds.add(storedText.id());
+            } else {
+                texts.put(storedText.id(), pageParsingUtils.getPageText(storedText));
+            }
+        }
+        if (!legacyPageIds.isEmpty()) {
+            pageContentStore.findAll(legacyPageIds)
+                    .forEach((pageId, content) -> texts.put(pageId, pageParsingUtils.getPageText(content)));
+        }
+        return texts;
     }
 
-    private SearchResult generateSearchResult(String[] queryLemmas, Map.Entry<PageEntity, Float> pageEntry) {
-        PageEntity page = pageEntry.getKey();
-        SiteEntity site = page.getSite();
-        float relevance = pageEntry.getValue();
-        return new SearchResult(site.getUrl(),
-                site.getName(),
-                page.getPath(),
-                pageParsingUtils.getTitle(page.getContent()),
-                getSnippet(page, queryLemmas),
+    private SearchResult generateSearchResult(String[] queryLemmas, PageSummary page, PageText pageText,
+                                              float relevance) {
+        return new SearchResult(page.siteUrl(),
+                page.siteName(),
+                page.path(),
+                pageText.title(),
+                snippetUtils.getSnippet(pageText.text(), queryLemmas),
                 relevance);
     }
 
-    private String getSnippet(PageEntity pageEntity, String[] queryLemmas) {
-        return snippetUtils.getSnippet(pageEntity.getContent(), queryLemmas);
+    private record SiteHitsCursor(List<PageRelevance> pages, int index) {
+        PageRelevance current() {
+            return pages.get(index);
+        }
+
+        boolean hasNext() {
+            return index + 1 < pages.size();
+        }
+
+        SiteHitsCursor next() {
+            return new SiteHitsCursor(pages, index + 1);
+        }
     }
 }
@@ -10,10 +10,9 @@ import searchengine.dto.statistics.StatisticsResponse;
 import searchengine.dto.statistics.TotalStatistics;
 import searchengine.model.SiteEntity;
 import searchengine.model.SiteStatus;
-import searchengine.repositories.LemmaRepository;
-import searchengine.repositories.PageRepository;
 import searchengine.repositories.SiteRepository;
 import searchengine.utils.PageParsingUtils;
+import searchengine.utils.SiteIndexStats;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -28,8 +27,7 @@ public class StatisticsServiceImpl implements StatisticsService {
     public static final String INDEXING_NOT_YET_STARTED = "Индексация ещё не запущена.";
     private final IndexingService indexingService;
     private final SiteRepository siteRepository;
-    private final PageRepository pageRepository;
-    private final LemmaRepository lemmaRepository;
+    private final SiteIndexStats siteIndexStats;
     private final PageParsingUtils pageParsingUtils;
     private final SitesList sites;
 
@@ -72,9 +70,9 @@ public class StatisticsServiceImpl implements StatisticsService {
         String lastError;
         LocalDateTime statusTime;
         try {
-            SiteEntity siteEntity = siteRepository.findByUrlLike(normalizedUrl).orElseThrow();
-            pages = pageRepository.countBySite(siteEntity);
-            lemmas = lemmaRepository.countBySite(siteEntity);
+            SiteEntity siteEntity = siteRepository.findFirstByUrlLikeOrderByIdDesc(normalizedUrl).orElseThrow();
+            pages = siteIndexStats.getPagesCount(siteEntity);
+            lemmas = siteIndexStats.getLemmasCount(siteEntity);
             siteStatus = siteEntity.getStatus();
             lastError = siteEntity.getLastError();
             statusTime = siteEntity.getStatusTime();
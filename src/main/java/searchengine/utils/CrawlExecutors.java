@@ -0,0 +1,58 @@
+package searchengine.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import searchengine.config.PagesCollectorConfig;
+import searchengine.config.SitesList;
+import searchengine.dto.indexing.CrawlStageMetrics;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Getter
+@Component
+public class CrawlExecutors {
+    private final ExecutorService siteExecutor;
+    private final CrawlStage fetchStage;
+    private final CrawlStage parseStage;
+    private final CrawlStage lemmatizeStage;
+    private final CrawlStage persistStage;
+
+    public CrawlExecutors(PagesCollectorConfig params, SitesList sitesList) {
+        int queueCapacity = params.getStageQueueCapacity();
+        this.siteExecutor = Executors.newCachedThreadPool(new CustomizableThreadFactory("crawl-site-"));
+        this.fetchStage = new CrawlStage("fetch", getFetchThreads(params, sitesList), queueCapacity);
+        this.parseStage = new CrawlStage("parse", params.getParseThreads(), queueCapacity);
+        this.lemmatizeStage = new CrawlStage("lemmatize", params.getLemmatizeThreads(), queueCapacity);
+        this.persistStage = new CrawlStage("persist", params.getPersistThreads(), queueCapacity);
+    }
+
+    public List<CrawlStageMetrics> getMetrics() {
+        return List.of(fetchStage.getMetrics(),
+                parseStage.getMetrics(),
+                lemmatizeStage.getMetrics(),
+                persistStage.getMetrics());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        siteExecutor.shutdownNow();
+        fetchStage.shutdown();
+        parseStage.shutdown();
+        lemmatizeStage.shutdown();
+        persistStage.shutdown();
+    }
+
+    /**
+     * A fetch waits for its host's politeness slot on a fetch thread, and each site holds at most
+     * host-fetch-concurrency fetches. With a thread for every such fetch, a ready host never queues behind threads
+     * that wait for other hosts.
+     */
+    private static int getFetchThreads(PagesCollectorConfig params, SitesList sitesList) {
+        int sites = sitesList.getSites() == null ? 0 : sitesList.getSites().size();
+        return Math.max(params.getFetchThreads(), sites * params.getHostFetchConcurrency());
+    }
+}
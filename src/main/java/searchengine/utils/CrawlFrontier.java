@@ -0,0 +1,177 @@
+package searchengine.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import searchengine.dto.parsing.FrontierEntry;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entries beyond the in-memory capacity are spilled to temporary files: one FIFO file for BFS order, one file
+ * per depth for PRIORITY order. PRIORITY still serves the shallowest entry first, but spilled entries of one depth
+ * are ordered by path length only within the window that is read back into memory.
+ */
+@Slf4j
+public class CrawlFrontier implements Closeable {
+    private static final int MAX_SPILLED_PATH_LENGTH = 16_384;
+    private final FrontierOrder order;
+    private final int memoryCapacity;
+    private final Queue<FrontierEntry> queue;
+    private final NavigableMap<Integer, SpillFile> spills = new TreeMap<>();
+    private long spilledEntries;
+
+    public CrawlFrontier(FrontierOrder order, int memoryCapacity) {
+        this.order = order;
+        this.memoryCapacity = memoryCapacity;
+        this.queue = order == FrontierOrder.PRIORITY ?
+                new PriorityQueue<>(Comparator.comparingInt(FrontierEntry::depth)
+                        .thenComparingInt(entry -> entry.path().length())) :
+                new ArrayDeque<>();
+    }
+
+    public synchronized boolean add(FrontierEntry entry) {
+        boolean fitsInMemory = queue.size() < memoryCapacity
+                && (order == FrontierOrder.PRIORITY || spilledEntries == 0);
+        if (fitsInMemory) {
+            queue.add(entry);
+        } else if (!spill(entry)) {
+            return false;
+        }
+        notifyAll();
+        return true;
+    }
+
+    public synchronized FrontierEntry poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        if (queue.isEmpty()) {
+            refill();
+        } else if (order == FrontierOrder.PRIORITY && !spills.isEmpty()
+                && spills.firstKey() < queue.peek().depth()) {
+            return readSpilled(spills.firstEntry());
+        }
+        return queue.poll();
+    }
+
+    public synchronized long size() {
+        return queue.size() + spilledEntries;
+    }
+
+    public synchronized long clear() {
+        long discarded = size();
+        queue.clear();
+        closeSpills();
+        return discarded;
+    }
+
+    @Override
+    public synchronized void close() {
+        queue.clear();
+        closeSpills();
+    }
+
+    private boolean isEmpty() {
+        return queue.isEmpty() && spilledEntries == 0;
+    }
+
+    private boolean spill(FrontierEntry entry) {
+        if (entry.path().length() > MAX_SPILLED_PATH_LENGTH) {
+            log.warn("Frontier entry dropped: path of {} chars at depth {} exceeds the spill limit of {} chars",
+                    entry.path().length(), entry.depth(), MAX_SPILLED_PATH_LENGTH);
+            return false;
+        }
+        int bucket = order == FrontierOrder.PRIORITY ? entry.depth() : 0;
+        try {
+            SpillFile spillFile = spills.get(bucket);
+            if (spillFile == null) {
+                spillFile = new SpillFile();
+                spills.put(bucket, spillFile);
+            }
+            spillFile.write(entry);
+            spilledEntries++;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void refill() {
+        Map.Entry<Integer, SpillFile> bucket = spills.firstEntry();
+        while (bucket.getValue().entries > 0 && queue.size() < memoryCapacity) {
+            queue.add(readSpilled(bucket));
+        }
+    }
+
+    private FrontierEntry readSpilled(Map.Entry<Integer, SpillFile> bucket) {
+        SpillFile spillFile = bucket.getValue();
+        try {
+            FrontierEntry entry = spillFile.read();
+            spilledEntries--;
+            if (spillFile.entries == 0) {
+                spills.remove(bucket.getKey());
+                spillFile.close();
+            }
+            return entry;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeSpills() {
+        spilledEntries = 0;
+        try {
+            for (SpillFile spillFile : spills.values()) {
+                spillFile.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            spills.clear();
+        }
+    }
+
+    private static class SpillFile implements Closeable {
+        private final Path path;
+        private final DataOutputStream output;
+        private final DataInputStream input;
+        private long entries;
+
+        SpillFile() throws IOException {
+            path = Files.createTempFile("frontier-", ".bin");
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+            input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        }
+
+        void write(FrontierEntry entry) throws IOException {
+            output.writeInt(entry.depth());
+            output.writeUTF(entry.path());
+            entries++;
+        }
+
+        FrontierEntry read() throws IOException {
+            output.flush();
+            int depth = input.readInt();
+            entries--;
+            return new FrontierEntry(input.readUTF(), depth);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                output.close();
+                input.close();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
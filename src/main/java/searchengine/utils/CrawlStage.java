@@ -0,0 +1,57 @@
+package searchengine.utils;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import searchengine.dto.indexing.CrawlStageMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class CrawlStage {
+    private final String name;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+
+    public CrawlStage(String name, int threads, int queueCapacity) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("crawl-" + name + "-"),
+                CrawlStage::waitForCapacity);
+    }
+
+    public void submit(Runnable task) {
+        executor.execute(task);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CrawlStageMetrics getMetrics() {
+        return new CrawlStageMetrics(name,
+                executor.getMaximumPoolSize(),
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                queueCapacity,
+                executor.getCompletedTaskCount());
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static void waitForCapacity(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Stage is shut down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(e);
+        }
+    }
+}
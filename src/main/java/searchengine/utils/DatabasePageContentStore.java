@@ -0,0 +1,68 @@
+package searchengine.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+@Component
+@ConditionalOnProperty(prefix = "content-store-settings", name = "type", havingValue = "database", matchIfMissing = true)
+@RequiredArgsConstructor
+public class DatabasePageContentStore implements PageContentStore {
+    public static final String SAVE_SQL = "INSERT INTO page_content (page_id, content) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE content = VALUES(content)";
+    public static final String DELETE_SQL = "DELETE FROM page_content WHERE page_id = ?";
+    private final JdbcTemplate jdbcTemplate;
+    private final CompressionUtils compressionUtils;
+
+    @Override
+    public void save(int pageId, String content) {
+        jdbcTemplate.update(SAVE_SQL, pageId, compressionUtils.compress(content));
+    }
+
+    @Override
+    public Optional<String> find(int pageId) {
+        return findAll(List.of(pageId)).values().stream().findFirst();
+    }
+
+    @Override
+    public Map<Integer, String> findAll(Collection<Integer> pageIds) {
+        Map<Integer, String> contents = new HashMap<>();
+        if (pageIds.isEmpty()) {
+            return contents;
+        }
+        jdbcTemplate.query(findAllSql(pageIds.size()),
+                resultSet -> {
+                    contents.put(resultSet.getInt(1), compressionUtils.decompress(resultSet.getBytes(2)));
+                },
+                pageIds.toArray());
+        return contents;
+    }
+
+    @Override
+    public void delete(int pageId) {
+        jdbcTemplate.update(DELETE_SQL, pageId);
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> pageIds) {
+        if (pageIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(deleteAllSql(pageIds.size()), pageIds.toArray());
+    }
+
+    public static String findAllSql(int pageCount) {
+        return "SELECT page_id, content FROM page_content WHERE page_id IN (" + placeholders(pageCount) + ")";
+    }
+
+    public static String deleteAllSql(int pageCount) {
+        return "DELETE FROM page_content WHERE page_id IN (" + placeholders(pageCount) + ")";
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,5 @@
+package searchengine.utils;
+
+public enum FrontierOrder {
+    BFS, PRIORITY
+}
@@ -0,0 +1,25 @@
+package searchengine.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.PagesCollectorConfig;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class HostPolitenessScheduler {
+    private final PagesCollectorConfig params;
+    private final Map<String, Long> nextSlots = new ConcurrentHashMap<>();
+
+    public void awaitTurn(URL url) throws InterruptedException {
+        long now = System.nanoTime();
+        long interval = TimeUnit.MILLISECONDS.toNanos(params.getDelay());
+        long slot = nextSlots.merge(url.getHost().toLowerCase(), now,
+                (lastSlot, current) -> Math.max(current, lastSlot + interval));
+        TimeUnit.NANOSECONDS.sleep(slot - now);
+    }
+}
@@ -0,0 +1,196 @@
+package searchengine.utils;
+
+import org.jsoup.parser.Parser;
+import org.springframework.stereotype.Component;
+import searchengine.dto.parsing.ExtractedPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@Component
+public class HtmlTextExtractor {
+    private static final Set<String> RAW_TEXT_TAGS = Set.of("script", "style", "title");
+    private static final Set<String> INLINE_TAGS = Set.of("a", "abbr", "b", "bdi", "bdo", "cite", "code", "data",
+            "dfn", "em", "font", "i", "kbd", "mark", "q", "s", "samp", "small", "span", "strong", "sub", "sup",
+            "time", "u", "var");
+
+    public ExtractedPage extract(String html) {
+        TextCollector text = new TextCollector(html.length() / 2);
+        String title = null;
+        List<String> links = new ArrayList<>();
+        int length = html.length();
+        int position = 0;
+        while (position < length) {
+            int tagStart = html.indexOf('<', position);
+            if (tagStart < 0) {
+                text.append(html, position, length);
+                break;
+            }
+            text.append(html, position, tagStart);
+            position = tagStart + 1;
+            if (html.startsWith("!--", position)) {
+                int commentEnd = html.indexOf("-->", position + 3);
+                position = commentEnd < 0 ? length : commentEnd + 3;
+                continue;
+            }
+            boolean isClosingTag = position < length && html.charAt(position) == '/';
+            int nameStart = isClosingTag ? position + 1 : position;
+            int nameEnd = nameStart;
+            while (nameEnd < length && isTagNameChar(html.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            if (nameEnd == nameStart) {
+                if (position < length && (html.charAt(position) == '!' || html.charAt(position) == '?')) {
+                    position = findTagEnd(html, position) + 1;
+                } else {
+                    text.append(html, tagStart, position);
+                }
+                continue;
+            }
+            String tagName = html.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+            int tagEnd = findTagEnd(html, nameEnd);
+            if (!isClosingTag && tagName.equals("a")) {
+                String href = getAttribute(html, nameEnd, tagEnd, "href");
+                if (href != null) {
+                    links.add(href);
+                }
+            }
+            if (!INLINE_TAGS.contains(tagName)) {
+                text.separate();
+            }
+            position = Math.min(length, tagEnd + 1);
+            if (isClosingTag || !RAW_TEXT_TAGS.contains(tagName)) {
+                continue;
+            }
+            int rawTextEnd = indexOfClosingTag(html, tagName, position);
+            if (tagName.equals("title")) {
+                if (title == null) {
+                    TextCollector titleText = new TextCollector(rawTextEnd - position);
+                    titleText.append(html, position, rawTextEnd);
+                    title = titleText.toString();
+                }
+                text.append(html, position, rawTextEnd);
+            }
+            position = rawTextEnd;
+        }
+        return new ExtractedPage(title == null ? "" : title, text.toString(), links);
+    }
+
+    private boolean isTagNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == ':';
+    }
+
+    private int findTagEnd(String html, int from) {
+        char quote = 0;
+        for (int i = from; i < html.length(); i++) {
+            char c = html.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        return html.length();
+    }
+
+    private int indexOfClosingTag(String html, String tagName, int from) {
+        int position = from;
+        while ((position = html.indexOf("</", position)) >= 0) {
+            if (html.regionMatches(true, position + 2, tagName, 0, tagName.length())) {
+                return position;
+            }
+            position += 2;
+        }
+        return html.length();
+    }
+
+    private String getAttribute(String html, int from, int to, String attributeName) {
+        int position = from;
+        while (position < to) {
+            while (position < to && (Character.isWhitespace(html.charAt(position)) || html.charAt(position) == '/')) {
+                position++;
+            }
+            int nameStart = position;
+            while (position < to && !Character.isWhitespace(html.charAt(position))
+                    && html.charAt(position) != '=' && html.charAt(position) != '/') {
+                position++;
+            }
+            int nameEnd = position;
+            while (position < to && Character.isWhitespace(html.charAt(position))) {
+                position++;
+            }
+            if (position >= to || html.charAt(position) != '=') {
+                continue;
+            }
+            position++;
+            while (position < to && Character.isWhitespace(html.charAt(position))) {
+                position++;
+            }
+            int valueStart = position;
+            int valueEnd;
+            if (position < to && (html.charAt(position) == '"' || html.charAt(position) == '\'')) {
+                int closingQuote = html.indexOf(html.charAt(position), position + 1);
+                valueStart = position + 1;
+                valueEnd = closingQuote < 0 || closingQuote > to ? to : closingQuote;
+                position = valueEnd + 1;
+            } else {
+                while (position < to && !Character.isWhitespace(html.charAt(position))) {
+                    position++;
+                }
+                valueEnd = position;
+            }
+            if (nameEnd - nameStart == attributeName.length()
+                    && html.regionMatches(true, nameStart, attributeName, 0, attributeName.length())) {
+                String value = html.substring(valueStart, valueEnd).trim();
+                return value.indexOf('&') < 0 ? value : Parser.unescapeEntities(value, true);
+            }
+        }
+        return null;
+    }
+
+    private static class TextCollector {
+        private final StringBuilder text;
+        private boolean isSpacePending;
+
+        TextCollector(int capacity) {
+            this.text = new StringBuilder(Math.max(16, capacity));
+        }
+
+        void append(String html, int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            String segment = html.substring(from, to);
+            if (segment.indexOf('&') >= 0) {
+                segment = Parser.unescapeEntities(segment, false);
+            }
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (Character.isWhitespace(c) || c == ' ') {
+                    separate();
+                    continue;
+                }
+                if (isSpacePending) {
+                    text.append(' ');
+                    isSpacePending = false;
+                }
+                text.append(c);
+            }
+        }
+
+        void separate() {
+            isSpacePending = !text.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package searchengine.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.config.PagesCollectorConfig;
+import searchengine.dto.indexing.IndexRow;
+import searchengine.repositories.IndexRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class IndexBatchWriter {
+    private final IndexRepository indexRepository;
+    private final PagesCollectorConfig params;
+    private final InvertedIndex invertedIndex;
+    private final SiteIndexStats siteIndexStats;
+    private final Queue<IndexRow> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedRows = new AtomicInteger();
+
+    public void add(List<IndexRow> rows) {
+        buffer.addAll(rows);
+        int batchSize = params.getIndexBatchSize();
+        if (bufferedRows.addAndGet(rows.size()) >= batchSize) {
+            write(batchSize);
+        }
+    }
+
+    public void flush() {
+        write(Integer.MAX_VALUE);
+    }
+
+    private void write(int maxRows) {
+        List<IndexRow> rows = new ArrayList<>();
+        IndexRow row;
+        while (rows.size() < maxRows && (row = buffer.poll()) != null) {
+            rows.add(row);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        bufferedRows.addAndGet(-rows.size());
+        indexRepository.insertAll(rows, params.getIndexBatchSize());
+        invertedIndex.invalidate(rows.stream()
+                .map(IndexRow::lemmaId)
+                .collect(Collectors.toSet()));
+        rows.stream()
+                .map(IndexRow::siteId)
+                .distinct()
+                .forEach(siteIndexStats::markIndexed);
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfig;
+import searchengine.repositories.IndexRepository;
+
+import java.util.Collection;
+
+@Component
+public class InvertedIndex {
+    private final IndexRepository indexRepository;
+    private final Cache<Integer, PostingList> postings;
+
+    public InvertedIndex(IndexRepository indexRepository, SearchConfig searchConfig) {
+        this.indexRepository = indexRepository;
+        this.postings = Caffeine.newBuilder()
+                .maximumWeight(searchConfig.getPostingCacheSize())
+                .weigher((Integer lemmaId, PostingList list) -> Math.max(1, list.size()))
+                .build();
+    }
+
+    public PostingList getPostings(int lemmaId) {
+        return postings.get(lemmaId, indexRepository::findPostingsByLemmaId);
+    }
+
+    public void invalidate(Collection<Integer> lemmaIds) {
+        postings.invalidateAll(lemmaIds);
+    }
+
+    public void invalidateAll() {
+        postings.invalidateAll();
+    }
+}
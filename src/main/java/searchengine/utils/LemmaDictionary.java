@@ -0,0 +1,129 @@
+package searchengine.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import searchengine.config.PagesCollectorConfig;
+import searchengine.model.LemmaEntity;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.LemmaRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@RequiredArgsConstructor
+public class LemmaDictionary {
+    private final LemmaRepository lemmaRepository;
+    private final PagesCollectorConfig params;
+    private final SiteIndexStats siteIndexStats;
+    private final Map<Integer, SiteLemmas> sites = new ConcurrentHashMap<>();
+
+    public LemmaEntity addOccurrence(SiteEntity site, String lemma) {
+        return changeFrequency(site, lemma, 1);
+    }
+
+    public void removeOccurrence(SiteEntity site, String lemma) {
+        changeFrequency(site, lemma, -1);
+    }
+
+    private LemmaEntity changeFrequency(SiteEntity site, String lemma, int delta) {
+        SiteLemmas siteLemmas = sites.computeIfAbsent(site.getId(), id -> new SiteLemmas());
+        LemmaCounter counter = siteLemmas.lemmas.get(lemma);
+        if (counter == null) {
+            LemmaCounter resolved = new LemmaCounter(findOrCreate(site, lemma));
+            LemmaCounter existing = siteLemmas.lemmas.putIfAbsent(lemma, resolved);
+            counter = existing == null ? resolved : existing;
+        }
+        counter.frequencyDelta.addAndGet(delta);
+        if (siteLemmas.pendingUpdates.incrementAndGet() >= params.getLemmaFlushThreshold()
+                && siteLemmas.flushLock.tryLock()) {
+            try {
+                flush(siteLemmas);
+            } finally {
+                siteLemmas.flushLock.unlock();
+            }
+        }
+        return counter.lemma;
+    }
+
+    public void flush(SiteEntity site) {
+        SiteLemmas siteLemmas = sites.get(site.getId());
+        if (siteLemmas == null) {
+            return;
+        }
+        siteLemmas.flushLock.lock();
+        try {
+            flush(siteLemmas);
+        } finally {
+            siteLemmas.flushLock.unlock();
+        }
+    }
+
+    public void release(SiteEntity site) {
+        flush(site);
+        sites.remove(site.getId());
+    }
+
+    public void discard(SiteEntity site) {
+        sites.remove(site.getId());
+    }
+
+    public void evict(SiteEntity site, Collection<LemmaEntity> lemmas) {
+        SiteLemmas siteLemmas = sites.get(site.getId());
+        if (siteLemmas != null) {
+            lemmas.forEach(lemma -> siteLemmas.lemmas.remove(lemma.getLemma()));
+        }
+    }
+
+    /**
+     * Runs outside the lemma map, so two threads may resolve the same new lemma; the one that loses the insert
+     * reads the row of the other.
+     */
+    private LemmaEntity findOrCreate(SiteEntity site, String lemma) {
+        return lemmaRepository.findBySiteAndLemma(site, lemma).orElseGet(() -> {
+            LemmaEntity lemmaEntity = new LemmaEntity(site, lemma);
+            lemmaEntity.setFrequency(0);
+            try {
+                LemmaEntity savedLemma = lemmaRepository.save(lemmaEntity);
+                siteIndexStats.addLemmas(site, 1);
+                return savedLemma;
+            } catch (DataIntegrityViolationException e) {
+                return lemmaRepository.findBySiteAndLemma(site, lemma).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    private void flush(SiteLemmas siteLemmas) {
+        siteLemmas.pendingUpdates.set(0);
+        Map<Integer, Integer> frequencyDeltas = new HashMap<>();
+        for (LemmaCounter counter : siteLemmas.lemmas.values()) {
+            int delta = counter.frequencyDelta.getAndSet(0);
+            if (delta != 0) {
+                frequencyDeltas.put(counter.lemma.getId(), delta);
+            }
+        }
+        if (!frequencyDeltas.isEmpty()) {
+            lemmaRepository.addFrequencies(frequencyDeltas, params.getBatchSize());
+        }
+    }
+
+    private static class SiteLemmas {
+        private final Map<String, LemmaCounter> lemmas = new ConcurrentHashMap<>();
+        private final AtomicInteger pendingUpdates = new AtomicInteger();
+        private final ReentrantLock flushLock = new ReentrantLock();
+    }
+
+    private static class LemmaCounter {
+        private final LemmaEntity lemma;
+        private final AtomicInteger frequencyDelta = new AtomicInteger();
+
+        private LemmaCounter(LemmaEntity lemma) {
+            this.lemma = lemma;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package searchengine.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class Lemmatizer {
+    private final TextUtils textUtils;
+    private final MorphologyCache morphologyCache;
+
+    public Map<String, Integer> getLemmasStatistics(String text) {
+        Map<String, Integer> lemmas = new HashMap<>();
+        textUtils.forEachWord(text, (start, end) -> {
+            for (String lemma : getLemmas(textUtils.toLowerCase(text, start, end))) {
+                lemmas.merge(lemma, 1, Integer::sum);
+            }
+        });
+        return lemmas;
+    }
+
+    public List<String> getLemmas(String lowerCaseWord) {
+        return morphologyCache.getLemmas(lowerCaseWord);
+    }
+}
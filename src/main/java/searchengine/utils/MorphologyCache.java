@@ -0,0 +1,52 @@
+package searchengine.utils;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfig;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+@Component
+public class MorphologyCache {
+    private static final String[] RESTRICTED_LEMMA_TYPES = {"ПРЕДЛ", "СОЮЗ", "МЕЖД", "ЧАСТ"};
+    private final LuceneMorphology luceneMorphology;
+    private final LoadingCache<String, List<String>> lemmas;
+
+    public MorphologyCache(SearchConfig searchConfig) throws IOException {
+        this.luceneMorphology = new RussianLuceneMorphology();
+        this.lemmas = Caffeine.newBuilder()
+                .maximumSize(searchConfig.getMorphologyCacheSize())
+                .recordStats()
+                .build(this::analyze);
+    }
+
+    public List<String> getLemmas(String lowerCaseWord) {
+        return lemmas.get(lowerCaseWord);
+    }
+
+    public CacheStats getStats() {
+        return lemmas.stats();
+    }
+
+    private List<String> analyze(String lowerCaseWord) {
+        return luceneMorphology.getMorphInfo(lowerCaseWord).stream()
+                .filter(Predicate.not(MorphologyCache::isRestrictedType))
+                .map(s -> s.substring(0, s.indexOf('|')))
+                .toList();
+    }
+
+    private static boolean isRestrictedType(String morphInfo) {
+        for (String type : RESTRICTED_LEMMA_TYPES) {
+            if (morphInfo.indexOf(type, 1) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package searchengine.utils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+public interface PageContentStore {
+    void save(int pageId, String content);
+
+    Optional<String> find(int pageId);
+
+    Map<Integer, String> findAll(Collection<Integer> pageIds);
+
+    void delete(int pageId);
+
+    void deleteAll(Collection<Integer> pageIds);
+}
@@ -3,19 +3,36 @@ package searchengine.utils;
 import lombok.RequiredArgsConstructor;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import searchengine.config.PagesCollectorConfig;
+import searchengine.dto.parsing.ExtractedPage;
 import searchengine.dto.parsing.ParsingResult;
+import searchengine.dto.search.PageText;
+import searchengine.dto.search.StoredPageText;
+import searchengine.model.PageEntity;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Component
 @RequiredArgsConstructor
 public class PageParsingUtils {
+    private static final Pattern META_CHARSET_PATTERN =
+            Pattern.compile("<meta[^>]+charset\\s*=\\s*[\"']?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+    private static final int CHARSET_SNIFF_LENGTH = 4096;
     private final PagesCollectorConfig params;
+    private final HostPolitenessScheduler politenessScheduler;
+    private final CompressionUtils compressionUtils;
+    private final HtmlTextExtractor htmlTextExtractor;
 
     public String getRelativePath(String path) {
         if (path.startsWith("/")) {
@@ -38,28 +55,80 @@ public class PageParsingUtils {
         return !url.contains(".") || url.matches(".+(\\.htm|\\.html)[/?]?.*");
     }
 
-    public ParsingResult getHttpResponse(String url, URL rootPage) throws IOException {
-        return getHttpResponse(new URL(rootPage, url));
-    }
-
     public ParsingResult getHttpResponse(URL link) throws IOException {
         try {
-            Thread.sleep(params.getDelay());
+            politenessScheduler.awaitTurn(link);
         } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + link.getHost());
         }
-        Connection.Response response =  Jsoup.newSession()
+        Connection.Response response = fetch(link);
+        String content = getBody(response);
+        return new ParsingResult(response.statusCode(), content, extractPage(content));
+    }
+
+    public Connection.Response fetch(URL link) throws IOException {
+        return fetch(link, null, null);
+    }
+
+    public Connection.Response fetch(URL link, String etag, String lastModified) throws IOException {
+        Connection connection = Jsoup.newSession()
                 .userAgent(params.getJsoupUserAgent())
                 .referrer(params.getJsoupReferer())
                 .url(link)
                 .followRedirects(params.getRedirect())
-                .execute();
-        return new ParsingResult(response.statusCode(), response.parse());
+                .timeout((int) params.getFetchTimeout().toMillis());
+        if (etag != null) {
+            connection.header(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            connection.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+        return connection.execute().bufferUp();
+    }
+
+    public String getBody(Connection.Response response) {
+        byte[] body = response.bodyAsBytes();
+        return new String(body, getCharset(response.charset(), body));
+    }
+
+    public ExtractedPage extractPage(String html) {
+        return htmlTextExtractor.extract(html);
+    }
+
+    private Charset getCharset(String declaredCharset, byte[] body) {
+        String charsetName = declaredCharset;
+        if (charsetName == null) {
+            String head = new String(body, 0, Math.min(body.length, CHARSET_SNIFF_LENGTH), StandardCharsets.ISO_8859_1);
+            Matcher matcher = META_CHARSET_PATTERN.matcher(head);
+            charsetName = matcher.find() ? matcher.group(1) : null;
+        }
+        try {
+            return charsetName != null && Charset.isSupported(charsetName) ?
+                    Charset.forName(charsetName) :
+                    StandardCharsets.UTF_8;
+        } catch (IllegalCharsetNameException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    public String getContentHash(String content) {
+        return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String storePageText(PageEntity page, ExtractedPage extractedPage) {
+        page.setTitle(extractedPage.title());
+        page.setPlainText(compressionUtils.compress(extractedPage.text()));
+        return extractedPage.text();
+    }
+
+    public PageText getPageText(StoredPageText storedText) {
+        return new PageText(storedText.title(), compressionUtils.decompress(storedText.text()));
     }
 
-    public String getTitle(String html) {
-        Document document = Jsoup.parse(html);
-        return document.title();
+    public PageText getPageText(String html) {
+        ExtractedPage extractedPage = extractPage(html);
+        return new PageText(extractedPage.title(), extractedPage.text());
     }
 
     public String normalizeSiteUrl(String urlPresentation) {
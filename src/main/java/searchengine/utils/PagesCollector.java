@@ -1,136 +1,342 @@
 package searchengine.utils;
 
-import lombok.Getter;
-import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.HttpStatusException;
-import org.jsoup.nodes.Document;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import searchengine.config.PagesCollectorConfig;
-import searchengine.dto.parsing.ParsingResult;
+import searchengine.dto.parsing.ExtractedPage;
+import searchengine.dto.parsing.FrontierEntry;
+import searchengine.dto.parsing.PageSnapshot;
 import searchengine.dto.parsing.ReposUtilsParams;
-import searchengine.exceptions.DuplicatePageException;
 import searchengine.model.PageEntity;
 import searchengine.repositories.PageRepository;
 import searchengine.model.SiteEntity;
-import searchengine.repositories.SiteRepository;
 
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
-import java.util.function.Predicate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-@Setter
-@Getter
-public class PagesCollector extends RecursiveTask<PagesCollectEndType> {
-    private SiteRepository siteRepository;
-    private PageRepository pageRepository;
-    private LemmaUtils lemmaUtils;
-    private PagesCollectorConfig params;
-    private PageParsingUtils pageParsingUtils;
-    private TextUtils textUtils;
-    private String path;
+@Slf4j
+public class PagesCollector {
+    private static final long POLL_TIMEOUT_MS = 100;
+    private static final long REPORT_INTERVAL_MS = 10_000;
+    private final PageRepository pageRepository;
+    private final LemmaUtils lemmaUtils;
+    private final PageParsingUtils pageParsingUtils;
+    private final PagesCollectorConfig params;
+    private final HostPolitenessScheduler politenessScheduler;
+    private final PageContentStore pageContentStore;
+    private final SiteIndexStats siteIndexStats;
+    private final SiteHeartbeat siteHeartbeat;
     private final SiteEntity site;
-    private ReposUtilsParams parameters;
-    private static boolean isStartedIndexing;
-    private final static Object lock = new Object();
+    private final URL rootUrl;
+    private final CrawlFrontier frontier;
+    private final Set<String> visitedPaths = ConcurrentHashMap.newKeySet();
+    private final Map<String, PageSnapshot> knownPages;
+    private final AtomicInteger acceptedPages = new AtomicInteger();
+    private final AtomicInteger pendingPages = new AtomicInteger();
+    private final AtomicInteger networkFetches = new AtomicInteger();
+    private final Semaphore fetchPermits;
+    private final CrawlStage fetchStage;
+    private final CrawlStage parseStage;
+    private final CrawlStage lemmatizeStage;
+    private final CrawlStage persistStage;
+    private final CrawlExecutors crawlExecutors;
+    private final Set<Thread> workingThreads = new HashSet<>();
+    private volatile boolean isCancelled;
 
-    public PagesCollector(String path, SiteEntity site, ReposUtilsParams parameters) {
-        this.path = path;
+    public PagesCollector(SiteEntity site, ReposUtilsParams parameters) {
         this.site = site;
-        this.siteRepository = parameters.siteRepository();
         this.pageRepository = parameters.pageRepository();
         this.lemmaUtils = parameters.lemmaUtils();
-        this.textUtils = parameters.textUtils();
         this.pageParsingUtils = parameters.pageParsingUtils();
+        this.politenessScheduler = parameters.politenessScheduler();
+        this.pageContentStore = parameters.pageContentStore();
+        this.siteIndexStats = parameters.siteIndexStats();
+        this.siteHeartbeat = parameters.siteHeartbeat();
         this.params = parameters.collectorConfig();
-        this.parameters = parameters;
+        this.frontier = new CrawlFrontier(params.getFrontierOrder(), params.getFrontierMemoryCapacity());
+        this.fetchPermits = new Semaphore(params.getHostFetchConcurrency());
+        this.knownPages = params.isIncrementalReindex() ?
+                pageRepository.findSnapshotsBySite(site).stream()
+                        .collect(Collectors.toMap(PageSnapshot::path, snapshot -> snapshot, (a, b) -> a)) :
+                Collections.emptyMap();
+        try {
+            this.rootUrl = new URL(site.getUrl());
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+        CrawlExecutors crawlExecutors = parameters.crawlExecutors();
+        this.fetchStage = crawlExecutors.getFetchStage();
+        this.parseStage = crawlExecutors.getParseStage();
+        this.lemmatizeStage = crawlExecutors.getLemmatizeStage();
+        this.persistStage = crawlExecutors.getPersistStage();
+        this.crawlExecutors = crawlExecutors;
+    }
+
+    public PagesCollectEndType collect() {
+        enqueue(List.of(pageParsingUtils.getRelativePath(site.getUrl())), 0);
+        long nextReportTime = System.currentTimeMillis() + REPORT_INTERVAL_MS;
+        try {
+            while (pendingPages.get() > 0) {
+                if (!startWork()) {
+                    return drain();
+                }
+                FrontierEntry entry = frontier.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    dispatch(entry);
+                }
+                if (System.currentTimeMillis() >= nextReportTime) {
+                    reportQueueDepths();
+                    nextReportTime = System.currentTimeMillis() + REPORT_INTERVAL_MS;
+                }
+            }
+            endWork();
+            removeVanishedPages();
+            return PagesCollectEndType.COMPLETED;
+        } catch (InterruptedException e) {
+            if (isCancelled) {
+                return drain();
+            }
+            Thread.currentThread().interrupt();
+            return PagesCollectEndType.INTERRUPTED;
+        } catch (RejectedExecutionException e) {
+            if (isCancelled) {
+                return drain();
+            }
+            throw e;
+        } finally {
+            endWork();
+            frontier.close();
+        }
     }
 
-    public PagesCollector(SiteEntity rootPage, ReposUtilsParams parameters) {
-        this(parameters.pageParsingUtils().getRelativePath(rootPage.getUrl()),
-                rootPage,
-                parameters);
-        isStartedIndexing = true;
+    public void cancel() {
+        isCancelled = true;
+        synchronized (workingThreads) {
+            workingThreads.forEach(Thread::interrupt);
+        }
     }
 
-    @Override
-    protected PagesCollectEndType compute() throws RuntimeException {
-        ParsingResult response;
-        String[] children = {};
-        PageEntity page;
-        if (!isStartedIndexing) {
-            return PagesCollectEndType.INTERRUPTED;
+    private PagesCollectEndType drain() {
+        endWork();
+        while (pendingPages.addAndGet((int) -frontier.clear()) > networkFetches.get()) {
+            try {
+                Thread.sleep(POLL_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
         }
+        return PagesCollectEndType.INTERRUPTED;
+    }
+
+    private boolean startWork() {
+        synchronized (workingThreads) {
+            if (isCancelled) {
+                return false;
+            }
+            workingThreads.add(Thread.currentThread());
+            return true;
+        }
+    }
+
+    private void endWork() {
+        synchronized (workingThreads) {
+            if (workingThreads.remove(Thread.currentThread())) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void dispatch(FrontierEntry entry) throws InterruptedException {
+        PageSnapshot snapshot = knownPages.get(entry.path());
+        PageEntity page = snapshot == null ?
+                new PageEntity(site, entry.path()) :
+                new PageEntity(site, snapshot);
         try {
-            page = getNewPageEntity(site, path);
-        } catch(DuplicatePageException e) {
-            return PagesCollectEndType.COMPLETED;
+            fetchPermits.acquire();
+        } catch (InterruptedException e) {
+            complete();
+            throw e;
         }
         try {
-            response = pageParsingUtils.getHttpResponse(path, new URL(site.getUrl()));
-            page.update(response.statusCode(), response.document().html());
-            if (response.statusCode() >= 400) {
-                return PagesCollectEndType.COMPLETED;
+            submit(fetchStage, () -> fetch(page, entry.depth()));
+        } catch (RejectedExecutionException e) {
+            fetchPermits.release();
+            complete();
+            throw e;
+        }
+    }
+
+    private void fetch(PageEntity page, int depth) {
+        try {
+            if (!startWork()) {
+                complete();
+                return;
             }
-            lemmaUtils.addLemmasAndIndexesToDB(site, page);
-            children = getChildPages(response.document());
-        } catch (HttpStatusException e) {
-            page.update(e.getStatusCode());
-        } catch (IOException e) {
-            page.update(HttpStatus.INTERNAL_SERVER_ERROR.value());
-        }  finally {
-            pageRepository.save(page);
-            site.updateTimestamp();
-            siteRepository.save(site);
-        }
-        return getPagesCollectResult(children);
-    }
-
-    private PageEntity getNewPageEntity(SiteEntity site, String path) throws DuplicatePageException {
-        Optional<PageEntity> optionalPage;
-        synchronized (lock) {
-            optionalPage = pageRepository.findByPathAndSite(path, site);
-            if (optionalPage.isEmpty()) {
-                PageEntity page = new PageEntity(site, path);
-                pageRepository.save(page);
-                return page;
+            try {
+                URL url = new URL(rootUrl, page.getPath());
+                politenessScheduler.awaitTurn(url);
+                Connection.Response response;
+                networkFetches.incrementAndGet();
+                try {
+                    response = pageParsingUtils.fetch(url, page.getEtag(), page.getLastModified());
+                } finally {
+                    networkFetches.decrementAndGet();
+                }
+                if (response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                    submit(parseStage, () -> parseUnmodified(page, depth));
+                } else {
+                    submit(parseStage, () -> parse(page, response, depth));
+                }
+            } catch (HttpStatusException e) {
+                page.update(e.getStatusCode());
+                submit(persistStage, () -> persist(page, Collections.emptyMap()));
+            } catch (IOException e) {
+                page.update(HttpStatus.INTERNAL_SERVER_ERROR.value());
+                submit(persistStage, () -> persist(page, Collections.emptyMap()));
+            } catch (InterruptedException e) {
+                complete();
+            } finally {
+                endWork();
             }
+        } finally {
+            fetchPermits.release();
+        }
+    }
+
+    private void parse(PageEntity page, Connection.Response response, int depth) {
+        String content = pageParsingUtils.getBody(response);
+        ExtractedPage extractedPage = pageParsingUtils.extractPage(content);
+        String contentHash = pageParsingUtils.getContentHash(content);
+        boolean isModified = !contentHash.equals(page.getContentHash());
+        page.update(response.statusCode(), content);
+        page.setContentHash(contentHash);
+        page.setEtag(response.header(HttpHeaders.ETAG));
+        page.setLastModified(response.header(HttpHeaders.LAST_MODIFIED));
+        String text = pageParsingUtils.storePageText(page, extractedPage);
+        if (response.statusCode() >= 400) {
+            submit(persistStage, () -> persist(page, Collections.emptyMap()));
+            return;
+        }
+        enqueue(getChildPages(extractedPage.links()), depth + 1);
+        if (isModified) {
+            submit(lemmatizeStage, () -> lemmatize(page, text));
+        } else {
+            submit(persistStage, () -> persistUnmodified(page));
         }
-        throw new DuplicatePageException();
     }
 
-    private PagesCollectEndType getPagesCollectResult(String[] children) {
-        return ForkJoinTask.invokeAll(new ArrayList<>(getSubTasks(children))).stream()
-                .map(ForkJoinTask::join)
-                .anyMatch(i -> i.equals(PagesCollectEndType.INTERRUPTED)) ?
-                PagesCollectEndType.INTERRUPTED :
-                PagesCollectEndType.COMPLETED;
+    private void parseUnmodified(PageEntity page, int depth) {
+        pageContentStore.find(page.getId())
+                .map(pageParsingUtils::extractPage)
+                .ifPresent(extractedPage -> enqueue(getChildPages(extractedPage.links()), depth + 1));
+        complete();
     }
 
-    private String[] getChildPages(Document document) {
-        String[] filteredPages;
-        Set<String> parsedPages = document.select("a[href]").stream()
-                .map(e -> e.attr("href"))
-                .filter(s -> pageParsingUtils.isValidChildLink(s, site.getUrl()))
-                .map(s -> s.startsWith("/") ? s : pageParsingUtils.getRelativePath(s))
-                .collect(Collectors.toSet());
-        Set<String> savedPages = pageRepository.getAllPathsBySitePathIn(parsedPages, site);
-        filteredPages = parsedPages.stream()
-                .filter(Predicate.not(savedPages::contains))
-                .toArray(String[]::new);
-        return filteredPages;
+    private void lemmatize(PageEntity page, String text) {
+        Map<String, Integer> lemmas = lemmaUtils.getLemmasStatistics(text);
+        submit(persistStage, () -> persist(page, lemmas));
+    }
+
+    private void persist(PageEntity page, Map<String, Integer> lemmas) {
+        boolean isNew = page.getId() == 0;
+        if (!isNew) {
+            lemmaUtils.removeLemmasAndIndexesFromDB(site, page);
+        }
+        pageRepository.save(page);
+        if (isNew) {
+            siteIndexStats.addPages(site, 1);
+        }
+        if (!page.getContent().isEmpty()) {
+            pageContentStore.save(page.getId(), page.getContent());
+        }
+        lemmaUtils.addLemmasAndIndexesToDB(site, page, lemmas);
+        siteHeartbeat.beat(site);
+        complete();
+    }
+
+    private void persistUnmodified(PageEntity page) {
+        pageRepository.save(page);
+        complete();
     }
 
-    private List<PagesCollector> getSubTasks(String[] pages) {
-        return Arrays.stream(pages)
-                .map(e -> new PagesCollector(e, site, parameters))
-                .toList();
+    private void removeVanishedPages() {
+        if (knownPages.isEmpty() || acceptedPages.get() > params.getMaxPagesPerSite()) {
+            return;
+        }
+        knownPages.values().stream()
+                .filter(snapshot -> !visitedPaths.contains(snapshot.path()))
+                .map(snapshot -> new PageEntity(site, snapshot))
+                .forEach(page -> {
+                    lemmaUtils.removeLemmasAndIndexesFromDB(site, page);
+                    pageContentStore.delete(page.getId());
+                    pageRepository.deleteById(page.getId());
+                    siteIndexStats.addPages(site, -1);
+                });
     }
 
-    public static void stopParsing() {
-        isStartedIndexing = false;
+    private void submit(CrawlStage stage, Runnable task) {
+        stage.submit(() -> {
+            if (isCancelled) {
+                complete();
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                if (!isCancelled) {
+                    log.error("Stage {} failed for site {}", stage.getName(), site.getUrl(), e);
+                }
+                complete();
+            }
+        });
+    }
+
+    private void enqueue(Collection<String> paths, int depth) {
+        if (depth > params.getMaxDepth()) {
+            return;
+        }
+        for (String path : paths) {
+            if (!visitedPaths.add(path)) {
+                continue;
+            }
+            if (acceptedPages.incrementAndGet() > params.getMaxPagesPerSite()) {
+                return;
+            }
+            pendingPages.incrementAndGet();
+            if (!frontier.add(new FrontierEntry(path, depth))) {
+                complete();
+            }
+        }
+    }
+
+    private void complete() {
+        pendingPages.decrementAndGet();
+    }
+
+    private void reportQueueDepths() {
+        log.info("Site {}: frontier={}, pending={}, {}", site.getUrl(), frontier.size(), pendingPages.get(),
+                crawlExecutors.getMetrics().stream()
+                        .map(stage -> stage.stage() + "=" + stage.queueDepth() + "/" + stage.queueCapacity()
+                                + " (active " + stage.activeThreads() + "/" + stage.threads() + ")")
+                        .collect(Collectors.joining(", ")));
+    }
+
+    private Set<String> getChildPages(List<String> links) {
+        return links.stream()
+                .filter(s -> pageParsingUtils.isValidChildLink(s, site.getUrl()))
+                .map(s -> s.startsWith("/") ? s : pageParsingUtils.getRelativePath(s))
+                .collect(Collectors.toSet());
     }
 }
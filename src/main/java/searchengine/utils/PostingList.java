@@ -0,0 +1,126 @@
+package searchengine.utils;
+
+import searchengine.dto.search.PageRelevance;
+
+import java.util.*;
+
+public class PostingList {
+    public static final PostingList EMPTY = new PostingList(new int[0], new float[0]);
+    public static final Comparator<PageRelevance> RELEVANCE_ORDER =
+            Comparator.comparing(PageRelevance::relevance, Comparator.reverseOrder())
+                    .thenComparing(PageRelevance::pageId);
+    private final int[] pageIds;
+    private final float[] ranks;
+
+    public PostingList(int[] pageIds, float[] ranks) {
+        this.pageIds = pageIds;
+        this.ranks = ranks;
+    }
+
+    public int size() {
+        return pageIds.length;
+    }
+
+    public float getRank(int index) {
+        return ranks[index];
+    }
+
+    public int[] getPageIds() {
+        return pageIds;
+    }
+
+    public float getMaxRank() {
+        float maxRank = 0;
+        for (float rank : ranks) {
+            maxRank = Math.max(maxRank, rank);
+        }
+        return maxRank;
+    }
+
+    public List<PageRelevance> getTopPages(int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        PriorityQueue<PageRelevance> topPages = new PriorityQueue<>(RELEVANCE_ORDER.reversed());
+        for (int i = 0; i < pageIds.length; i++) {
+            PageRelevance page = new PageRelevance(pageIds[i], ranks[i]);
+            if (topPages.size() < limit) {
+                topPages.add(page);
+            } else if (RELEVANCE_ORDER.compare(page, topPages.peek()) < 0) {
+                topPages.poll();
+                topPages.add(page);
+            }
+        }
+        List<PageRelevance> result = new ArrayList<>(topPages);
+        result.sort(RELEVANCE_ORDER);
+        return result;
+    }
+
+    public static PostingList intersect(List<PostingList> postingLists) {
+        if (postingLists.isEmpty()) {
+            return EMPTY;
+        }
+        PostingList[] lists = postingLists.stream()
+                .sorted(Comparator.comparingInt(PostingList::size))
+                .toArray(PostingList[]::new);
+        PostingList shortest = lists[0];
+        int[] positions = new int[lists.length];
+        int[] pageIds = new int[shortest.size()];
+        float[] ranks = new float[shortest.size()];
+        int count = 0;
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            int pageId = shortest.pageIds[i];
+            float rank = shortest.ranks[i];
+            for (int j = 1; j < lists.length; j++) {
+                PostingList list = lists[j];
+                positions[j] = list.advance(positions[j], pageId);
+                if (positions[j] == list.size()) {
+                    break candidates;
+                }
+                if (list.pageIds[positions[j]] != pageId) {
+                    continue candidates;
+                }
+                rank += list.ranks[positions[j]];
+            }
+            pageIds[count] = pageId;
+            ranks[count] = rank;
+            count++;
+        }
+        return new PostingList(Arrays.copyOf(pageIds, count), Arrays.copyOf(ranks, count));
+    }
+
+    public static class Builder {
+        private int[] pageIds = new int[64];
+        private float[] ranks = new float[64];
+        private int count;
+
+        public void add(int pageId, float rank) {
+            if (count == pageIds.length) {
+                pageIds = Arrays.copyOf(pageIds, count * 2);
+                ranks = Arrays.copyOf(ranks, count * 2);
+            }
+            pageIds[count] = pageId;
+            ranks[count] = rank;
+            count++;
+        }
+
+        public PostingList build() {
+            return new PostingList(Arrays.copyOf(pageIds, count), Arrays.copyOf(ranks, count));
+        }
+    }
+
+    int advance(int from, int target) {
+        int bound = 1;
+        while (from + bound < pageIds.length && pageIds[from + bound] < target) {
+            bound <<= 1;
+        }
+        int low = from + (bound >> 1);
+        int high = Math.min(from + bound, pageIds.length - 1);
+        if (low >= pageIds.length) {
+            return pageIds.length;
+        }
+        int index = Arrays.binarySearch(pageIds, low, high + 1, target);
+        return index >= 0 ? index : -index - 1;
+    }
+}
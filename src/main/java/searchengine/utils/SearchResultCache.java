@@ -0,0 +1,67 @@
+package searchengine.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfig;
+import searchengine.dto.search.SearchHits;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+@Component
+public class SearchResultCache {
+    private final Cache<Key, SearchHits> results;
+    private final int depth;
+    private final Map<String, AtomicLong> siteGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong allSitesGeneration = new AtomicLong();
+
+    public SearchResultCache(SearchConfig searchConfig) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(searchConfig.getResultCacheSize())
+                .expireAfterWrite(searchConfig.getResultCacheTtl())
+                .build();
+        this.depth = searchConfig.getResultCacheDepth();
+    }
+
+    public SearchHits get(String siteUrl, String[] queryLemmas, int requiredDepth, IntFunction<SearchHits> loader) {
+        if (requiredDepth > depth) {
+            return loader.apply(requiredDepth);
+        }
+        Key key = new Key(siteUrl, normalize(queryLemmas), generationOf(siteUrl).get());
+        SearchHits hits = results.getIfPresent(key);
+        if (hits == null) {
+            hits = loader.apply(depth);
+            results.put(key, hits);
+        }
+        return hits;
+    }
+
+    /**
+     * Bumping the generation makes entries loaded before the call unreachable, even those still being loaded;
+     * removing them only frees the memory earlier than expiry would.
+     */
+    public void invalidate(String siteUrl) {
+        generationOf(siteUrl).incrementAndGet();
+        allSitesGeneration.incrementAndGet();
+        results.asMap().keySet().removeIf(key -> key.siteUrl() == null || key.siteUrl().equals(siteUrl));
+    }
+
+    private AtomicLong generationOf(String siteUrl) {
+        return siteUrl == null ? allSitesGeneration : siteGenerations.computeIfAbsent(siteUrl, url -> new AtomicLong());
+    }
+
+    private List<String> normalize(String[] queryLemmas) {
+        return Arrays.stream(queryLemmas)
+                .sorted()
+                .distinct()
+                .toList();
+    }
+
+    private record Key(String siteUrl, List<String> lemmas, long generation) {
+    }
+}
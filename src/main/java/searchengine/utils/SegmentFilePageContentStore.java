@@ -0,0 +1,360 @@
+package searchengine.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import searchengine.config.ContentStoreConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "content-store-settings", name = "type", havingValue = "segments")
+public class SegmentFilePageContentStore implements PageContentStore {
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int TOMBSTONE = -1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private final CompressionUtils compressionUtils;
+    private final Path directory;
+    private final long segmentSize;
+    private final double compactionThreshold;
+    private final Map<Integer, Location> locations = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> liveBytes = new HashMap<>();
+    private final Map<Integer, Long> totalBytes = new HashMap<>();
+    private final Map<Integer, Integer> staleRecords = new HashMap<>();
+    private final Map<Integer, Integer> tombstoneSegments = new HashMap<>();
+    private final Deque<Integer> compactionCandidates = new ArrayDeque<>();
+    private final Map<Integer, FileChannel> readChannels = new ConcurrentHashMap<>();
+    private final Map<Integer, MappedByteBuffer> mappedSegments = new ConcurrentHashMap<>();
+    private volatile int activeSegment;
+    private FileChannel activeChannel;
+    private long activeSize;
+
+    public SegmentFilePageContentStore(ContentStoreConfig config, CompressionUtils compressionUtils) throws IOException {
+        this.compressionUtils = compressionUtils;
+        this.directory = Path.of(config.getPath());
+        this.segmentSize = Math.min(config.getSegmentSize(), Integer.MAX_VALUE);
+        this.compactionThreshold = config.getCompactionThreshold();
+        Files.createDirectories(directory);
+        List<Integer> segments = findSegments();
+        for (int segment : segments) {
+            loadSegment(segment);
+        }
+        openActiveSegment(segments.isEmpty() ? 1 : segments.get(segments.size() - 1));
+        compactionCandidates.addAll(segments);
+        compactSparseSegments();
+        log.info("Page content store {}: {} segments, {} pages", directory, totalBytes.size(), locations.size());
+    }
+
+    @Override
+    public synchronized void save(int pageId, String content) {
+        byte[] data = compressionUtils.compress(content);
+        long offset = append(pageId, data.length, data);
+        putLocation(pageId, new Location(activeSegment, offset + HEADER_SIZE, data.length));
+        compactSparseSegments();
+    }
+
+    @Override
+    public Optional<String> find(int pageId) {
+        while (true) {
+            Location location = locations.get(pageId);
+            if (location == null) {
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(compressionUtils.decompress(read(location)));
+            } catch (UncheckedIOException e) {
+                if (location.equals(locations.get(pageId))) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Map<Integer, String> findAll(Collection<Integer> pageIds) {
+        Map<Integer, String> contents = new HashMap<>();
+        for (int pageId : pageIds) {
+            find(pageId).ifPresent(content -> contents.put(pageId, content));
+        }
+        return contents;
+    }
+
+    @Override
+    public synchronized void delete(int pageId) {
+        if (removeLocation(pageId) != null) {
+            append(pageId, TOMBSTONE, new byte[0]);
+            putTombstone(pageId, activeSegment);
+            compactSparseSegments();
+        }
+    }
+
+    @Override
+    public synchronized void deleteAll(Collection<Integer> pageIds) {
+        pageIds.forEach(this::delete);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        activeChannel.force(false);
+        activeChannel.close();
+        for (FileChannel channel : readChannels.values()) {
+            channel.close();
+        }
+    }
+
+    private long append(int pageId, int length, byte[] data) {
+        int recordSize = HEADER_SIZE + data.length;
+        try {
+            if (activeSize > 0 && activeSize + recordSize > segmentSize) {
+                openActiveSegment(activeSegment + 1);
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordSize)
+                    .putInt(pageId)
+                    .putInt(length)
+                    .put(data)
+                    .flip();
+            long offset = activeSize;
+            while (record.hasRemaining()) {
+                activeSize += activeChannel.write(record, activeSize);
+            }
+            totalBytes.merge(activeSegment, (long) recordSize, Long::sum);
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void putLocation(int pageId, Location location) {
+        Location previous = locations.put(pageId, location);
+        if (previous != null) {
+            releaseRecord(pageId, previous);
+        }
+        removeTombstone(pageId);
+        liveBytes.merge(location.segment(), HEADER_SIZE + (long) location.length(), Long::sum);
+    }
+
+    private Location removeLocation(int pageId) {
+        Location previous = locations.remove(pageId);
+        if (previous != null) {
+            releaseRecord(pageId, previous);
+        }
+        return previous;
+    }
+
+    private void releaseRecord(int pageId, Location location) {
+        staleRecords.merge(pageId, 1, Integer::sum);
+        releaseLiveBytes(location.segment(), HEADER_SIZE + (long) location.length());
+    }
+
+    /**
+     * A tombstone counts as live while an older record of the page is still on disk, because dropping it
+     * would bring that record back when the segments are loaded again.
+     */
+    private void putTombstone(int pageId, int segment) {
+        removeTombstone(pageId);
+        tombstoneSegments.put(pageId, segment);
+        liveBytes.merge(segment, (long) HEADER_SIZE, Long::sum);
+    }
+
+    private void removeTombstone(int pageId) {
+        Integer segment = tombstoneSegments.remove(pageId);
+        if (segment != null) {
+            releaseLiveBytes(segment, HEADER_SIZE);
+        }
+    }
+
+    private void releaseLiveBytes(int segment, long bytes) {
+        liveBytes.merge(segment, -bytes, Long::sum);
+        if (segment != activeSegment) {
+            compactionCandidates.add(segment);
+        }
+    }
+
+    private void compactSparseSegments() {
+        Integer segment;
+        while ((segment = compactionCandidates.poll()) != null) {
+            Long total = totalBytes.get(segment);
+            if (segment == activeSegment || total == null) {
+                continue;
+            }
+            long live = liveBytes.getOrDefault(segment, 0L);
+            if (live == 0 || live < total * compactionThreshold) {
+                compact(segment, live);
+            }
+        }
+    }
+
+    private void compact(int segment, long live) {
+        try {
+            FileChannel channel = getReadChannel(segment);
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (position + HEADER_SIZE <= size) {
+                readFully(channel, header.clear(), position);
+                int pageId = header.flip().getInt();
+                int length = header.getInt();
+                if (length == TOMBSTONE) {
+                    if (Objects.equals(tombstoneSegments.get(pageId), segment)) {
+                        append(pageId, TOMBSTONE, new byte[0]);
+                        putTombstone(pageId, activeSegment);
+                    }
+                    position += HEADER_SIZE;
+                    continue;
+                }
+                Location location = new Location(segment, position + HEADER_SIZE, length);
+                if (location.equals(locations.get(pageId))) {
+                    ByteBuffer data = ByteBuffer.allocate(length);
+                    readFully(channel, data, location.offset());
+                    long offset = append(pageId, length, data.array());
+                    Location movedLocation = new Location(activeSegment, offset + HEADER_SIZE, length);
+                    locations.put(pageId, movedLocation);
+                    liveBytes.merge(activeSegment, HEADER_SIZE + (long) length, Long::sum);
+                } else if (staleRecords.merge(pageId, -1, Integer::sum) == 0) {
+                    staleRecords.remove(pageId);
+                    removeTombstone(pageId);
+                }
+                position += HEADER_SIZE + length;
+            }
+            removeSegment(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Compacted segment {} of {}: moved {} live bytes", segment, directory, live);
+    }
+
+    private void removeSegment(int segment) throws IOException {
+        mappedSegments.remove(segment);
+        FileChannel channel = readChannels.remove(segment);
+        if (channel != null) {
+            channel.close();
+        }
+        Files.deleteIfExists(getSegmentPath(segment));
+        liveBytes.remove(segment);
+        totalBytes.remove(segment);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+
+    private byte[] read(Location location) {
+        byte[] data = new byte[location.length()];
+        try {
+            if (location.segment() != activeSegment) {
+                getMappedSegment(location.segment()).get((int) location.offset(), data);
+                return data;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            FileChannel channel = getReadChannel(location.segment());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, location.offset() + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of segment " + location.segment());
+                }
+            }
+            return data;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer getMappedSegment(int segment) {
+        return mappedSegments.computeIfAbsent(segment, key -> {
+            try {
+                FileChannel channel = getReadChannel(key);
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private FileChannel getReadChannel(int segment) {
+        return readChannels.computeIfAbsent(segment, key -> {
+            try {
+                return FileChannel.open(getSegmentPath(key), StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void openActiveSegment(int segment) throws IOException {
+        if (activeChannel != null) {
+            activeChannel.force(false);
+            activeChannel.close();
+            compactionCandidates.add(activeSegment);
+        }
+        activeChannel = FileChannel.open(getSegmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        activeSize = activeChannel.size();
+        activeSegment = segment;
+        totalBytes.putIfAbsent(segment, activeSize);
+    }
+
+    private void loadSegment(int segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(getSegmentPath(segment),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (position + HEADER_SIZE <= size) {
+                readFully(channel, header.clear(), position);
+                int pageId = header.flip().getInt();
+                int length = header.getInt();
+                if (length == TOMBSTONE) {
+                    if (removeLocation(pageId) != null || staleRecords.containsKey(pageId)) {
+                        putTombstone(pageId, segment);
+                    }
+                    position += HEADER_SIZE;
+                    continue;
+                }
+                if (length < 0 || position + HEADER_SIZE + length > size) {
+                    break;
+                }
+                putLocation(pageId, new Location(segment, position + HEADER_SIZE, length));
+                position += HEADER_SIZE + length;
+            }
+            if (position < size) {
+                log.warn("Truncating incomplete record at {} in segment {}", position, segment);
+                channel.truncate(position);
+            }
+            totalBytes.put(segment, position);
+        }
+    }
+
+    private List<Integer> findSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path getSegmentPath(int segment) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private record Location(int segment, long offset, int length) {
+    }
+}
@@ -0,0 +1,87 @@
+package searchengine.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import searchengine.config.PagesCollectorConfig;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.IndexRepository;
+import searchengine.repositories.LemmaRepository;
+import searchengine.repositories.PageRepository;
+import searchengine.repositories.SiteRepository;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Component
+public class SiteGenerationPurger {
+    private final SiteRepository siteRepository;
+    private final PageRepository pageRepository;
+    private final LemmaRepository lemmaRepository;
+    private final IndexRepository indexRepository;
+    private final PageContentStore pageContentStore;
+    private final LemmaDictionary lemmaDictionary;
+    private final SiteIndexStats siteIndexStats;
+    private final PagesCollectorConfig params;
+    private final ExecutorService executor;
+
+    public SiteGenerationPurger(SiteRepository siteRepository, PageRepository pageRepository,
+                                LemmaRepository lemmaRepository, IndexRepository indexRepository,
+                                PageContentStore pageContentStore, LemmaDictionary lemmaDictionary,
+                                SiteIndexStats siteIndexStats, PagesCollectorConfig params) {
+        this.siteRepository = siteRepository;
+        this.pageRepository = pageRepository;
+        this.lemmaRepository = lemmaRepository;
+        this.indexRepository = indexRepository;
+        this.pageContentStore = pageContentStore;
+        this.lemmaDictionary = lemmaDictionary;
+        this.siteIndexStats = siteIndexStats;
+        this.params = params;
+        this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("site-purge-"));
+    }
+
+    public void purge(SiteEntity site) {
+        lemmaDictionary.discard(site);
+        siteIndexStats.reset(site);
+        executor.execute(() -> {
+            try {
+                purgeInChunks(site);
+                log.info("Purged generation {} of site {}", site.getId(), site.getUrl());
+            } catch (RuntimeException e) {
+                log.error("Failed to purge generation {} of site {}", site.getId(), site.getUrl(), e);
+            }
+        });
+    }
+
+    private void purgeInChunks(SiteEntity site) {
+        int chunkSize = params.getPurgeChunkSize();
+        List<Integer> pageIds;
+        while (!(pageIds = pageRepository.findIdsBySite(site, PageRequest.of(0, chunkSize))).isEmpty()) {
+            while (indexRepository.deleteByPageIdIn(pageIds, chunkSize) > 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+            pageContentStore.deleteAll(pageIds);
+            pageRepository.deleteByIdIn(pageIds);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+        while (lemmaRepository.deleteBySite(site, chunkSize) > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+        siteRepository.removeById(site.getId());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,75 @@
+package searchengine.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import searchengine.config.PagesCollectorConfig;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.SiteRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class SiteHeartbeat {
+    private final SiteRepository siteRepository;
+    private final Map<Integer, Activity> activities = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    public SiteHeartbeat(SiteRepository siteRepository, PagesCollectorConfig params) {
+        this.siteRepository = siteRepository;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("site-heartbeat-"));
+        long interval = params.getStatusFlushInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void start(SiteEntity site) {
+        activities.put(site.getId(), new Activity());
+    }
+
+    public void beat(SiteEntity site) {
+        Activity activity = activities.get(site.getId());
+        if (activity != null) {
+            activity.lastActivity.set(System.currentTimeMillis());
+        }
+    }
+
+    public void stop(SiteEntity site) {
+        activities.remove(site.getId());
+    }
+
+    void flush() {
+        activities.forEach((siteId, activity) -> {
+            long lastActivity = activity.lastActivity.get();
+            if (lastActivity == activity.flushedActivity) {
+                return;
+            }
+            try {
+                siteRepository.updateStatusTime(siteId,
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(lastActivity), ZoneId.systemDefault()));
+                activity.flushedActivity = lastActivity;
+            } catch (RuntimeException e) {
+                log.warn("Failed to update status time of site {}", siteId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static class Activity {
+        private final AtomicLong lastActivity = new AtomicLong(System.currentTimeMillis());
+        private long flushedActivity = lastActivity.get();
+    }
+}
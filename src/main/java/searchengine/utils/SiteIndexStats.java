@@ -0,0 +1,80 @@
+package searchengine.utils;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.model.SiteEntity;
+import searchengine.repositories.IndexRepository;
+import searchengine.repositories.LemmaRepository;
+import searchengine.repositories.PageRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@RequiredArgsConstructor
+public class SiteIndexStats {
+    private final IndexRepository indexRepository;
+    private final PageRepository pageRepository;
+    private final LemmaRepository lemmaRepository;
+    private final Map<Integer, Boolean> indexedSites = new ConcurrentHashMap<>();
+    private final Map<Integer, SiteCounters> counters = new ConcurrentHashMap<>();
+
+    public boolean isIndexed(SiteEntity site) {
+        return indexedSites.computeIfAbsent(site.getId(), siteId -> indexRepository.existsByPageSite(site));
+    }
+
+    public void markIndexed(int siteId) {
+        indexedSites.put(siteId, true);
+    }
+
+    /**
+     * Counts the site once before it is written to; afterwards the counters follow the deltas reported after each
+     * write, so a count is never taken halfway between a write and its delta.
+     */
+    public void seed(SiteEntity site) {
+        getCounters(site);
+    }
+
+    public int getPagesCount(SiteEntity site) {
+        return getCounters(site).pages.get();
+    }
+
+    public int getLemmasCount(SiteEntity site) {
+        return getCounters(site).lemmas.get();
+    }
+
+    public void addPages(SiteEntity site, int delta) {
+        counters.computeIfPresent(site.getId(), (siteId, siteCounters) -> {
+            siteCounters.pages.addAndGet(delta);
+            return siteCounters;
+        });
+    }
+
+    public void addLemmas(SiteEntity site, int delta) {
+        counters.computeIfPresent(site.getId(), (siteId, siteCounters) -> {
+            siteCounters.lemmas.addAndGet(delta);
+            return siteCounters;
+        });
+    }
+
+    public void reset(SiteEntity site) {
+        indexedSites.remove(site.getId());
+        counters.remove(site.getId());
+    }
+
+    private SiteCounters getCounters(SiteEntity site) {
+        return counters.computeIfAbsent(site.getId(), siteId -> new SiteCounters(
+                pageRepository.countBySite(site), lemmaRepository.countBySite(site)));
+    }
+
+    private static class SiteCounters {
+        private final AtomicInteger pages;
+        private final AtomicInteger lemmas;
+
+        SiteCounters(int pages, int lemmas) {
+            this.pages = new AtomicInteger(pages);
+            this.lemmas = new AtomicInteger(lemmas);
+        }
+    }
+}
@@ -3,85 +3,143 @@ package searchengine.utils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
 public class SnippetUtils {
     private static final int SNIPPET_LENGTH = 200;
+    private static final int NO_MATCH = -1;
     private final TextUtils textUtils;
-    private final LemmaUtils lemmaUtils;
+    private final Lemmatizer lemmatizer;
 
-    public String getSnippet(String html, String[] queryLemmas) {
-        String text = textUtils.removeHtmlTags(html);
-        int firstQueryWordPosition = getFirstOccurrenceQueryWordPosition(text, queryLemmas);
-        String truncatedText = truncate(text, firstQueryWordPosition);
-        return getHighlightedText(truncatedText, queryLemmas);
+    public String getSnippet(String text, String[] queryLemmas) {
+        List<QueryWord> queryWords = findQueryWords(text, queryLemmas);
+        if (queryWords.isEmpty()) {
+            return text.substring(0, getEndPosition(text, 0, 0));
+        }
+        Window window = getBestWindow(queryWords, queryLemmas.length);
+        int begin = getBeginPosition(text, window);
+        int end = getEndPosition(text, begin, window.end());
+        return getHighlightedText(text, begin, end, queryWords);
     }
 
-    private int getFirstOccurrenceQueryWordPosition(String text, String[] queryLemmas) {
-        String[] words = textUtils.getWordsFromText(text);
-        for (String word : words) {
-            if (isContainedInQuery(word, queryLemmas)) {
-                return text.indexOf(word);
-            }
+    private List<QueryWord> findQueryWords(String text, String[] queryLemmas) {
+        Map<String, Integer> lemmaIndexes = new HashMap<>();
+        for (int i = 0; i < queryLemmas.length; i++) {
+            lemmaIndexes.put(queryLemmas[i], i);
         }
-        return -1;
+        Map<String, Integer> wordMatches = new HashMap<>();
+        List<QueryWord> queryWords = new ArrayList<>();
+        textUtils.forEachWord(text, (start, end) -> {
+            int lemmaIndex = wordMatches.computeIfAbsent(textUtils.toLowerCase(text, start, end),
+                    word -> getQueryLemmaIndex(word, lemmaIndexes));
+            if (lemmaIndex != NO_MATCH) {
+                queryWords.add(new QueryWord(start, end, lemmaIndex));
+            }
+        });
+        return queryWords;
     }
 
-    private boolean isContainedInQuery(String word, String[] queryLemmas) {
-        word = word.toLowerCase();
-        for (String lemma : queryLemmas) {
-            if (lemmaUtils.getLemmasStatistics(word).containsKey(lemma)) {
-                return true;
+    private int getQueryLemmaIndex(String word, Map<String, Integer> lemmaIndexes) {
+        for (String lemma : lemmatizer.getLemmas(word)) {
+            Integer lemmaIndex = lemmaIndexes.get(lemma);
+            if (lemmaIndex != null) {
+                return lemmaIndex;
             }
         }
-        return false;
+        return NO_MATCH;
     }
 
-    private String truncate(String text, int queryItemPosition) {
-        if (queryItemPosition <= 0) {
-            return text.substring(0, Math.min(text.length(), SNIPPET_LENGTH));
+    private Window getBestWindow(List<QueryWord> queryWords, int lemmasCount) {
+        int[] lemmaOccurrences = new int[lemmasCount];
+        int coveredLemmas = 0;
+        int first = 0;
+        int bestFirst = 0;
+        int bestLast = 0;
+        int bestCoveredLemmas = 0;
+        int bestWordsCount = 0;
+        for (int last = 0; last < queryWords.size(); last++) {
+            if (lemmaOccurrences[queryWords.get(last).lemmaIndex()]++ == 0) {
+                coveredLemmas++;
+            }
+            while (first < last && queryWords.get(last).end() - queryWords.get(first).start() > SNIPPET_LENGTH) {
+                if (--lemmaOccurrences[queryWords.get(first).lemmaIndex()] == 0) {
+                    coveredLemmas--;
+                }
+                first++;
+            }
+            int wordsCount = last - first + 1;
+            if (coveredLemmas > bestCoveredLemmas
+                    || (coveredLemmas == bestCoveredLemmas && wordsCount > bestWordsCount)) {
+                bestFirst = first;
+                bestLast = last;
+                bestCoveredLemmas = coveredLemmas;
+                bestWordsCount = wordsCount;
+            }
         }
-        int beginPosition = getBeginPosition(text, queryItemPosition);
-        return text.substring(beginPosition, getEndPosition(text, beginPosition));
+        return new Window(queryWords.get(bestFirst).start(), queryWords.get(bestLast).end());
     }
 
-    private int getBeginPosition(String text, int queryItemPosition) {
-        String substring = text.substring(0, queryItemPosition);
-        int startPosition = Math.max(0, queryItemPosition - SNIPPET_LENGTH / 2);
-        Optional<Integer> beforeDelimiterPosition = Stream.of(substring.lastIndexOf(".") + 1,
-                        substring.lastIndexOf("!") + 1,
-                        substring.lastIndexOf("?") + 1)
-                .filter(i -> i > 0 && i > startPosition)
-                .max(Integer::compareTo);
-        return beforeDelimiterPosition.orElseGet(() -> Math.max(0, text.indexOf(" ", startPosition)));
+    private int getBeginPosition(String text, Window window) {
+        int slack = Math.max(0, SNIPPET_LENGTH - (window.end() - window.begin()));
+        int startPosition = Math.max(0, window.begin() - slack / 2);
+        if (startPosition == 0) {
+            return 0;
+        }
+        for (int i = window.begin() - 1; i >= startPosition; i--) {
+            char c = text.charAt(i);
+            if (c == '.' || c == '!' || c == '?') {
+                return skipSpaces(text, i + 1);
+            }
+        }
+        int spacePosition = text.indexOf(' ', startPosition);
+        return spacePosition < 0 || spacePosition >= window.begin() ?
+                window.begin() :
+                skipSpaces(text, spacePosition);
     }
 
-    private int getEndPosition(String text, int beginPosition) {
+    private int getEndPosition(String text, int beginPosition, int minEndPosition) {
         int toIndex = beginPosition + SNIPPET_LENGTH;
-        if (toIndex >= text.length()){
+        if (toIndex >= text.length()) {
             return text.length();
         }
-        int fromIndex = toIndex - 50;
-        Optional<Integer> optionalEndPosition = Stream.of(text.indexOf(".", fromIndex) + 1,
-                        text.indexOf("!", fromIndex) + 1,
-                        text.indexOf("?", fromIndex) + 1)
-                .filter(i -> i > 0 && i <= toIndex + 50)
-                .max(Integer::compareTo);
-        return optionalEndPosition.orElseGet(() -> text.indexOf(" ", fromIndex) + 1);
+        int spacePosition = text.lastIndexOf(' ', toIndex);
+        return spacePosition > beginPosition && spacePosition >= minEndPosition ? spacePosition : toIndex;
     }
 
-    private String getHighlightedText(String text, String[] queryLemmas) {
-        String[] wordsToHighlight = Arrays.stream(textUtils.getWordsFromText(text))
-                .distinct()
-                .filter(i -> isContainedInQuery(i, queryLemmas))
-                .toArray(String[]::new);
-        for (String word : wordsToHighlight) {
-            text = text.replaceAll(word, "<b>" + word + "</b>");
+    private int skipSpaces(String text, int position) {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
         }
-        return text;
+        return position;
+    }
+
+    private String getHighlightedText(String text, int begin, int end, List<QueryWord> queryWords) {
+        StringBuilder snippet = new StringBuilder(end - begin + 64);
+        int position = begin;
+        for (QueryWord queryWord : queryWords) {
+            if (queryWord.start() < begin) {
+                continue;
+            }
+            if (queryWord.end() > end) {
+                break;
+            }
+            snippet.append(text, position, queryWord.start())
+                    .append("<b>")
+                    .append(text, queryWord.start(), queryWord.end())
+                    .append("</b>");
+            position = queryWord.end();
+        }
+        return snippet.append(text, position, end).toString();
+    }
+
+    private record QueryWord(int start, int end, int lemmaIndex) {
+    }
+
+    private record Window(int begin, int end) {
     }
 }
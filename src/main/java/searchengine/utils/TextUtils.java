@@ -1,23 +1,52 @@
 package searchengine.utils;
 
-import org.jsoup.Jsoup;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.MatchResult;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class TextUtils {
+    private static final int CASE_OFFSET = 'а' - 'А';
+
+    @FunctionalInterface
+    public interface WordHandler {
+        void handle(int start, int end);
+    }
+
     public String[] getWordsFromText(String text) {
-        Pattern pattern = Pattern.compile("[а-я]+", Pattern.UNICODE_CHARACTER_CLASS
-                | Pattern.CASE_INSENSITIVE);
-        return pattern.matcher(text).results()
-                .map(MatchResult::group)
-                .map(String::trim)
-                .toArray(String[]::new);
+        List<String> words = new ArrayList<>();
+        forEachWord(text, (start, end) -> words.add(text.substring(start, end)));
+        return words.toArray(String[]::new);
+    }
+
+    public void forEachWord(String text, WordHandler handler) {
+        int length = text.length();
+        int position = 0;
+        while (position < length) {
+            while (position < length && !isWordChar(text.charAt(position))) {
+                position++;
+            }
+            int start = position;
+            while (position < length && isWordChar(text.charAt(position))) {
+                position++;
+            }
+            if (position > start) {
+                handler.handle(start, position);
+            }
+        }
+    }
+
+    public String toLowerCase(String text, int start, int end) {
+        char[] word = new char[end - start];
+        for (int i = 0; i < word.length; i++) {
+            char c = text.charAt(start + i);
+            word[i] = c < 'а' ? (char) (c + CASE_OFFSET) : c;
+        }
+        return new String(word);
     }
 
-    public String removeHtmlTags(String text) {
-        return Jsoup.parse(text).text();
+    private static boolean isWordChar(char c) {
+        return (c >= 'а' && c <= 'я') || (c >= 'А' && c <= 'Я');
     }
 }
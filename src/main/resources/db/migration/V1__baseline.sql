@@ -0,0 +1,43 @@
+CREATE TABLE site
+(
+    id          INT                                    NOT NULL AUTO_INCREMENT,
+    status      ENUM ('INDEXING', 'INDEXED', 'FAILED') NOT NULL,
+    status_time DATETIME                               NOT NULL,
+    last_error  TEXT,
+    url         VARCHAR(255)                           NOT NULL,
+    name        VARCHAR(255)                           NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE page
+(
+    id      INT        NOT NULL AUTO_INCREMENT,
+    site_id INT        NOT NULL,
+    path    TEXT       NOT NULL,
+    code    INT        NOT NULL,
+    content MEDIUMTEXT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FK_PAGE_SITE_ID FOREIGN KEY (site_id) REFERENCES site (id) ON DELETE CASCADE ON UPDATE NO ACTION
+) ENGINE = InnoDB;
+
+CREATE TABLE lemma
+(
+    id        INT          NOT NULL AUTO_INCREMENT,
+    site_id   INT          NOT NULL,
+    lemma     VARCHAR(255) NOT NULL,
+    frequency INT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UC_SITE_LEMMA UNIQUE (site_id, lemma),
+    CONSTRAINT FK_LEMMA_SITE_ID FOREIGN KEY (site_id) REFERENCES site (id) ON DELETE CASCADE ON UPDATE NO ACTION
+) ENGINE = InnoDB;
+
+CREATE TABLE indexes
+(
+    id       INT   NOT NULL AUTO_INCREMENT,
+    page_id  INT   NOT NULL,
+    lemma_id INT   NOT NULL,
+    `rank`   FLOAT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FK_INDEX_PAGE_ID FOREIGN KEY (page_id) REFERENCES page (id) ON DELETE CASCADE ON UPDATE NO ACTION,
+    CONSTRAINT FK_INDEX_LEMMA_ID FOREIGN KEY (lemma_id) REFERENCES lemma (id) ON DELETE CASCADE ON UPDATE NO ACTION
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+-- TEXT paths cannot be indexed as a whole, so pages are looked up by a hash of the path.
+ALTER TABLE page
+    ADD COLUMN path_hash BINARY(16) GENERATED ALWAYS AS (UNHEX(MD5(path))) STORED;
+
+DELETE duplicate
+FROM page duplicate
+         JOIN page original
+              ON original.site_id = duplicate.site_id
+                  AND original.path_hash = duplicate.path_hash
+                  AND original.id < duplicate.id;
+
+ALTER TABLE page
+    ADD CONSTRAINT UC_SITE_PATH_HASH UNIQUE (site_id, path_hash);
+
+-- Posting lists are read as (page_id, rank) ordered by page_id straight from this index.
+CREATE INDEX IDX_INDEX_LEMMA_PAGE_RANK ON indexes (lemma_id, page_id, `rank`);
+-- Lemmas of a page are resolved and deleted through this index on reindex.
+CREATE INDEX IDX_INDEX_PAGE_LEMMA ON indexes (page_id, lemma_id);
+
+-- The foreign keys are served by the composite indexes above.
+ALTER TABLE page
+    DROP INDEX FK_PAGE_SITE_ID;
+ALTER TABLE indexes
+    DROP INDEX FK_INDEX_LEMMA_ID,
+    DROP INDEX FK_INDEX_PAGE_ID;
@@ -0,0 +1,3 @@
+-- Generations of a site are resolved by URL, and search scopes are resolved by site name.
+CREATE INDEX IDX_SITE_URL ON site (url);
+CREATE INDEX IDX_SITE_NAME ON site (name);
@@ -0,0 +1,235 @@
+package searchengine.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import searchengine.model.LemmaEntity;
+import searchengine.model.PageEntity;
+import searchengine.model.SiteEntity;
+import searchengine.utils.DatabasePageContentStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Explains the statements the repositories issue: Hibernate SQL is captured by {@link RecordingStatementInspector},
+ * JDBC SQL is shared with the repository implementations and the database content store. Arguments are passed in the
+ * order of their placeholders.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "searchengine.repositories.RecordingStatementInspector")
+@Transactional
+class RepositoryQueryPlanTest {
+    private static final int OTHER_SITES_COUNT = 100;
+    private static final int PAGES_COUNT = 200;
+    private static final int LEMMAS_COUNT = 100;
+    private static final int LEMMAS_PER_PAGE = 10;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SiteRepository siteRepository;
+    @Autowired
+    private PageRepository pageRepository;
+    @Autowired
+    private LemmaRepository lemmaRepository;
+    @Autowired
+    private IndexRepository indexRepository;
+    private SiteEntity site;
+    private PageEntity page;
+    private int pageId;
+    private int otherSiteId;
+    private List<Integer> lemmaIds;
+
+    @BeforeEach
+    void fillTables() {
+        List<Object[]> otherSites = new ArrayList<>();
+        for (int i = 0; i < OTHER_SITES_COUNT; i++) {
+            otherSites.add(new Object[]{"https://other" + i + ".test", "other" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO site (status, status_time, url, name) "
+                + "VALUES ('INDEXED', NOW(), ?, ?)", otherSites);
+        otherSiteId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM site", Integer.class);
+        jdbcTemplate.update("INSERT INTO site (status, status_time, url, name) "
+                + "VALUES ('INDEXED', NOW(), 'https://plan.test', 'plan')");
+        int siteId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+        List<Object[]> pages = new ArrayList<>();
+        for (int i = 0; i < PAGES_COUNT; i++) {
+            pages.add(new Object[]{siteId, "/page/" + i, 200});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO page (site_id, path, code) VALUES (?, ?, ?)", pages);
+        List<Integer> pageIds = jdbcTemplate.queryForList("SELECT id FROM page WHERE site_id = ?",
+                Integer.class, siteId);
+        pageId = pageIds.get(0);
+        List<Object[]> contents = new ArrayList<>();
+        for (int id : pageIds) {
+            contents.add(new Object[]{id, new byte[]{1}});
+        }
+        jdbcTemplate.batchUpdate(DatabasePageContentStore.SAVE_SQL, contents);
+        List<Object[]> lemmas = new ArrayList<>();
+        for (int i = 0; i < LEMMAS_COUNT; i++) {
+            lemmas.add(new Object[]{siteId, "лемма" + i, PAGES_COUNT});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO lemma (site_id, lemma, frequency) VALUES (?, ?, ?)", lemmas);
+        lemmaIds = jdbcTemplate.queryForList("SELECT id FROM lemma WHERE site_id = ?", Integer.class, siteId);
+        List<Object[]> indexes = new ArrayList<>();
+        for (int page = 0; page < PAGES_COUNT; page++) {
+            for (int lemma = 0; lemma < LEMMAS_PER_PAGE; lemma++) {
+                indexes.add(new Object[]{pageIds.get(page), lemmaIds.get((page + lemma) % LEMMAS_COUNT), 1.0f});
+            }
+        }
+        jdbcTemplate.batchUpdate(IndexRepositoryCustomizedImpl.INSERT_SQL, indexes);
+        site = siteRepository.findById(siteId).orElseThrow();
+        page = pageRepository.findById(pageId).orElseThrow();
+    }
+
+    @Test
+    public void findPostingsByLemmaIdTest() {
+        List<Map<String, Object>> plan = explain(IndexRepositoryCustomizedImpl.FIND_POSTINGS_SQL, lemmaIds.get(0));
+        assertUsesKeys(plan, "IDX_INDEX_LEMMA_PAGE_RANK");
+        assertTrue(extra(plan).contains("Using index"), "Posting list is not covered by the index: " + plan);
+        assertFalse(extra(plan).contains("filesort"), "Posting list is sorted outside of the index: " + plan);
+    }
+
+    @Test
+    public void deleteIndexesByPageTest() {
+        assertUsesKeys(explain(IndexRepositoryCustomizedImpl.DELETE_BY_PAGE_ID_SQL, pageId),
+                "IDX_INDEX_PAGE_LEMMA");
+        assertUsesKeys(explain(IndexRepositoryCustomizedImpl.deleteByPageIdInSql(3, 100),
+                pageId, pageId + 1, pageId + 2), "IDX_INDEX_PAGE_LEMMA");
+    }
+
+    @Test
+    public void existsByPageSiteTest() {
+        String sql = recordSingle(() -> indexRepository.existsByPageSite(site));
+        assertUsesKeys(explain(sql, site.getId(), 1), "UC_SITE_PATH_HASH", "IDX_INDEX_PAGE_LEMMA");
+    }
+
+    @Test
+    public void findLemmasOfPageTest() {
+        String sql = recordSingle(() -> lemmaRepository.findAllByPage(page));
+        assertUsesKeys(explain(sql, pageId), "IDX_INDEX_PAGE_LEMMA", "PRIMARY");
+        sql = recordSingle(() -> lemmaRepository.findAllByPageId(pageId));
+        assertUsesKeys(explain(sql, pageId), "IDX_INDEX_PAGE_LEMMA", "PRIMARY");
+    }
+
+    @Test
+    public void findByPathAndSiteTest() {
+        String sql = recordSingle(() -> pageRepository.findByPathAndSite("/page/1", site));
+        assertUsesKeys(explain(sql, site.getId(), "/page/1", "/page/1"), "UC_SITE_PATH_HASH");
+    }
+
+    @Test
+    public void findPagesOfSiteTest() {
+        String sql = recordSingle(() -> pageRepository.countBySite(site));
+        assertUsesKeys(explain(sql, site.getId()), "UC_SITE_PATH_HASH");
+        sql = recordSingle(() -> pageRepository.findSnapshotsBySite(site));
+        assertUsesKeys(explain(sql, site.getId()), "UC_SITE_PATH_HASH");
+        sql = recordSingle(() -> pageRepository.findIdsBySite(site, PageRequest.of(0, 100)));
+        assertUsesKeys(explain(sql, site.getId(), 100), "UC_SITE_PATH_HASH");
+    }
+
+    @Test
+    public void findTextsByIdInTest() {
+        String sql = recordSingle(() -> pageRepository.findTextsByIdIn(List.of(pageId, pageId + 1)));
+        assertUsesKeys(explain(sql, pageId, pageId + 1), "PRIMARY");
+    }
+
+    @Test
+    public void findSummariesByIdInTest() {
+        String sql = recordSingle(() -> pageRepository.findSummariesByIdIn(List.of(pageId, pageId + 1)));
+        assertUsesKeys(explain(sql, pageId, pageId + 1), "PRIMARY");
+    }
+
+    @Test
+    public void pageContentIsFoundByPageIdTest() {
+        assertUsesKeys(explain(DatabasePageContentStore.findAllSql(2), pageId, pageId + 1), "PRIMARY");
+        assertUsesKeys(explain(DatabasePageContentStore.DELETE_SQL, pageId), "PRIMARY");
+        assertUsesKeys(explain(DatabasePageContentStore.deleteAllSql(2), pageId, pageId + 1), "PRIMARY");
+    }
+
+    @Test
+    public void findSiteGenerationsTest() {
+        String url = site.getUrl();
+        String sql = recordSingle(() -> siteRepository.findByUrlLikeAndActiveTrue(url));
+        assertUsesKeys(explain(sql, url), "IDX_SITE_URL");
+        sql = recordSingle(() -> siteRepository.findByUrlLikeAndActiveFalse(url));
+        assertUsesKeys(explain(sql, url), "IDX_SITE_URL");
+        sql = recordSingle(() -> siteRepository.findFirstByUrlLikeOrderByIdDesc(url));
+        assertUsesKeys(explain(sql, url, 1), "IDX_SITE_URL");
+        sql = recordSingle(() -> siteRepository.findByNameInAndActiveTrue(new String[]{site.getName()}));
+        assertUsesKeys(explain(sql, site.getName()), "IDX_SITE_NAME");
+    }
+
+    @Test
+    public void updateSiteGenerationsTest() {
+        String sql = recordSingle(() -> siteRepository.activate(site.getId(), site.getUrl()));
+        assertUsesKeys(explain(sql, site.getId(), site.getUrl()), "IDX_SITE_URL");
+        LocalDateTime statusTime = LocalDateTime.now();
+        sql = recordSingle(() -> siteRepository.updateStatusTime(site.getId(), statusTime));
+        assertUsesKeys(explain(sql, statusTime, site.getId()), "PRIMARY");
+        sql = recordSingle(() -> siteRepository.removeById(otherSiteId));
+        assertUsesKeys(explain(sql, otherSiteId), "PRIMARY");
+    }
+
+    @Test
+    public void findLemmasOfSiteTest() {
+        String sql = recordSingle(() -> lemmaRepository.findBySiteAndLemma(site, "лемма1"));
+        assertUsesKeys(explain(sql, site.getId(), "лемма1"), "UC_SITE_LEMMA");
+        sql = recordSingle(() -> lemmaRepository.findBySiteAndLemmaIn(site, new String[]{"лемма1", "лемма2"}));
+        assertUsesKeys(explain(sql, site.getId(), "лемма1", "лемма2"), "UC_SITE_LEMMA");
+        sql = recordSingle(() -> lemmaRepository.countBySite(site));
+        assertUsesKeys(explain(sql, site.getId()), "UC_SITE_LEMMA");
+    }
+
+    @Test
+    public void updateLemmaFrequenciesTest() {
+        List<LemmaEntity> lemmas = List.of(lemmaRepository.findById(lemmaIds.get(0)).orElseThrow(),
+                lemmaRepository.findById(lemmaIds.get(1)).orElseThrow());
+        List<String> statements = RecordingStatementInspector.record(
+                () -> lemmaRepository.decrementFrequencyOrDelete(lemmas));
+        assertEquals(2, statements.size(), "Unexpected statements: " + statements);
+        for (String sql : statements) {
+            assertUsesKeys(explain(sql, lemmaIds.get(0), lemmaIds.get(1)), "PRIMARY");
+        }
+        assertUsesKeys(explain(LemmaRepositoryCustomizedImpl.ADD_FREQUENCY_SQL, 1, lemmaIds.get(0)),
+                "PRIMARY");
+    }
+
+    @Test
+    public void deleteLemmasOfSiteTest() {
+        String sql = recordSingle(() -> lemmaRepository.deleteUnused(site));
+        assertUsesKeys(explain(sql, site.getId()), "UC_SITE_LEMMA");
+        assertUsesKeys(explain(LemmaRepositoryCustomizedImpl.DELETE_BY_SITE_SQL, site.getId(), 100),
+                "UC_SITE_LEMMA");
+    }
+
+    private String recordSingle(Runnable call) {
+        List<String> statements = RecordingStatementInspector.record(call);
+        assertEquals(1, statements.size(), "Unexpected statements: " + statements);
+        return statements.get(0);
+    }
+
+    private List<Map<String, Object>> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+    }
+
+    private void assertUsesKeys(List<Map<String, Object>> plan, String... keys) {
+        for (String key : keys) {
+            assertTrue(plan.stream().anyMatch(row -> key.equals(row.get("key"))),
+                    "Key " + key + " is not used: " + plan);
+        }
+        assertTrue(plan.stream().noneMatch(row -> "ALL".equals(row.get("type"))), "Full table scan: " + plan);
+    }
+
+    private String extra(List<Map<String, Object>> plan) {
+        return String.valueOf(plan.get(0).get("Extra"));
+    }
+}
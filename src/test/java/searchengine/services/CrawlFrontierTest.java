@@ -0,0 +1,77 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.Test;
+import searchengine.dto.parsing.FrontierEntry;
+import searchengine.utils.CrawlFrontier;
+import searchengine.utils.FrontierOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlFrontierTest {
+
+    @Test
+    public void spilledEntriesKeepBfsOrderTest() throws InterruptedException {
+        List<String> polled = new ArrayList<>();
+        try (CrawlFrontier frontier = new CrawlFrontier(FrontierOrder.BFS, 2)) {
+            for (int i = 0; i < 5; i++) {
+                frontier.add(new FrontierEntry("/page" + i, 1));
+            }
+            assertEquals(5, frontier.size());
+            FrontierEntry entry;
+            while ((entry = frontier.poll(10, TimeUnit.MILLISECONDS)) != null) {
+                polled.add(entry.path());
+            }
+            assertEquals(0, frontier.size());
+        }
+        assertEquals(List.of("/page0", "/page1", "/page2", "/page3", "/page4"), polled);
+    }
+
+    @Test
+    public void priorityOrderPrefersShallowPagesTest() throws InterruptedException {
+        try (CrawlFrontier frontier = new CrawlFrontier(FrontierOrder.PRIORITY, 10)) {
+            frontier.add(new FrontierEntry("/deep/page/", 3));
+            frontier.add(new FrontierEntry("/section/", 1));
+            frontier.add(new FrontierEntry("/a/", 1));
+            assertAll(
+                    () -> assertEquals("/a/", frontier.poll(10, TimeUnit.MILLISECONDS).path()),
+                    () -> assertEquals("/section/", frontier.poll(10, TimeUnit.MILLISECONDS).path()),
+                    () -> assertEquals("/deep/page/", frontier.poll(10, TimeUnit.MILLISECONDS).path()),
+                    () -> assertNull(frontier.poll(10, TimeUnit.MILLISECONDS))
+            );
+        }
+    }
+
+    @Test
+    public void spilledEntriesKeepPriorityOrderTest() throws InterruptedException {
+        List<Integer> polledDepths = new ArrayList<>();
+        try (CrawlFrontier frontier = new CrawlFrontier(FrontierOrder.PRIORITY, 2)) {
+            frontier.add(new FrontierEntry("/a/b/c/", 3));
+            frontier.add(new FrontierEntry("/a/b/", 2));
+            frontier.add(new FrontierEntry("/x/y/z/", 3));
+            frontier.add(new FrontierEntry("/a/", 1));
+            frontier.add(new FrontierEntry("/b/", 1));
+            frontier.add(new FrontierEntry("/x/y/", 2));
+            assertEquals(6, frontier.size());
+            FrontierEntry entry;
+            while ((entry = frontier.poll(10, TimeUnit.MILLISECONDS)) != null) {
+                polledDepths.add(entry.depth());
+            }
+        }
+        assertEquals(List.of(1, 1, 2, 2, 3, 3), polledDepths);
+    }
+
+    @Test
+    public void clearDiscardsSpilledEntriesTest() {
+        try (CrawlFrontier frontier = new CrawlFrontier(FrontierOrder.BFS, 1)) {
+            frontier.add(new FrontierEntry("/page1", 1));
+            frontier.add(new FrontierEntry("/page2", 1));
+            frontier.add(new FrontierEntry("/page3", 1));
+            assertEquals(3, frontier.clear());
+            assertEquals(0, frontier.size());
+        }
+    }
+}
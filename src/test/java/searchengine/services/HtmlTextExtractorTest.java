@@ -0,0 +1,39 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.Test;
+import searchengine.dto.parsing.ExtractedPage;
+import searchengine.utils.HtmlTextExtractor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlTextExtractorTest {
+    private final HtmlTextExtractor htmlTextExtractor = new HtmlTextExtractor();
+
+    @Test
+    public void extractTest() {
+        String html = "<!DOCTYPE html><html><head><title> Новости &amp; события </title>"
+                + "<style>p {color: red}</style><script>var link = '<a href=\"/script\">';</script></head>"
+                + "<body><!-- <a href='/comment'> --><h1>Заголовок</h1><p>Кот<b>ы</b> и&nbsp;собаки<br>гуляют</p>"
+                + "<a href=\"/news/1.html?a=1&amp;b=2\" class=link>Ссылка</a> <a name=top></a>"
+                + "<A HREF='https://host/page'>Страница</A> 3 < 5</body></html>";
+        ExtractedPage page = htmlTextExtractor.extract(html);
+        assertAll(
+                () -> assertEquals("Новости & события", page.title()),
+                () -> assertEquals("Новости & события Заголовок Коты и собаки гуляют Ссылка Страница 3 < 5",
+                        page.text()),
+                () -> assertEquals(List.of("/news/1.html?a=1&b=2", "https://host/page"), page.links())
+        );
+    }
+
+    @Test
+    public void extractWithoutTitleTest() {
+        ExtractedPage page = htmlTextExtractor.extract("<p>Текст без заголовка");
+        assertAll(
+                () -> assertEquals("", page.title()),
+                () -> assertEquals("Текст без заголовка", page.text()),
+                () -> assertTrue(page.links().isEmpty())
+        );
+    }
+}
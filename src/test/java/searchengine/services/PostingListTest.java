@@ -0,0 +1,48 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.Test;
+import searchengine.dto.search.PageRelevance;
+import searchengine.utils.PostingList;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostingListTest {
+
+    @Test
+    public void intersectTest() {
+        PostingList first = new PostingList(new int[]{1, 3, 5, 7, 9, 11}, new float[]{1, 1, 2, 1, 3, 1});
+        PostingList second = new PostingList(new int[]{3, 4, 9, 11, 20}, new float[]{2, 1, 1, 4, 1});
+        PostingList third = new PostingList(new int[]{2, 3, 9, 10, 11}, new float[]{1, 1, 1, 1, 1});
+        PostingList result = PostingList.intersect(List.of(first, second, third));
+        assertAll(
+                () -> assertArrayEquals(new int[]{3, 9, 11}, result.getPageIds()),
+                () -> assertEquals(4F, result.getRank(0)),
+                () -> assertEquals(5F, result.getRank(1)),
+                () -> assertEquals(6F, result.getRank(2))
+        );
+    }
+
+    @Test
+    public void intersectWithEmptyListTest() {
+        PostingList list = new PostingList(new int[]{1, 2, 3}, new float[]{1, 1, 1});
+        assertAll(
+                () -> assertEquals(0, PostingList.intersect(List.of(list, PostingList.EMPTY)).size()),
+                () -> assertEquals(0, PostingList.intersect(List.of()).size()),
+                () -> assertArrayEquals(new int[]{1, 2, 3}, PostingList.intersect(List.of(list)).getPageIds())
+        );
+    }
+
+    @Test
+    public void getTopPagesTest() {
+        PostingList list = new PostingList(new int[]{1, 2, 3, 4, 5}, new float[]{2, 5, 1, 5, 3});
+        assertAll(
+                () -> assertEquals(List.of(new PageRelevance(2, 5), new PageRelevance(4, 5),
+                        new PageRelevance(5, 3)), list.getTopPages(3)),
+                () -> assertEquals(5, list.getTopPages(10).size()),
+                () -> assertEquals(List.of(), list.getTopPages(0)),
+                () -> assertEquals(5F, list.getMaxRank())
+        );
+    }
+}
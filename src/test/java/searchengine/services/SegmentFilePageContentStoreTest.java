@@ -0,0 +1,125 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import searchengine.config.ContentStoreConfig;
+import searchengine.utils.CompressionUtils;
+import searchengine.utils.SegmentFilePageContentStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentFilePageContentStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void saveFindDeleteTest() throws IOException {
+        SegmentFilePageContentStore store = createStore(1024);
+        store.save(1, "<p>Первая страница</p>");
+        store.save(2, "<p>Вторая страница</p>");
+        store.save(1, "<p>Обновлённая первая страница</p>");
+        store.delete(2);
+        assertAll(
+                () -> assertEquals(Optional.of("<p>Обновлённая первая страница</p>"), store.find(1)),
+                () -> assertEquals(Optional.empty(), store.find(2)),
+                () -> assertEquals(Map.of(1, "<p>Обновлённая первая страница</p>"), store.findAll(List.of(1, 2, 3)))
+        );
+        store.close();
+    }
+
+    @Test
+    public void reopenAcrossSegmentsTest() throws IOException {
+        SegmentFilePageContentStore store = createStore(64);
+        for (int pageId = 1; pageId <= 20; pageId++) {
+            store.save(pageId, "<p>Страница номер " + pageId + "</p>");
+        }
+        store.delete(7);
+        assertEquals(Optional.of("<p>Страница номер 3</p>"), store.find(3));
+        store.close();
+        try (var files = Files.list(directory)) {
+            assertTrue(files.count() > 1);
+        }
+
+        SegmentFilePageContentStore reopenedStore = createStore(64);
+        assertAll(
+                () -> assertEquals(Optional.of("<p>Страница номер 1</p>"), reopenedStore.find(1)),
+                () -> assertEquals(Optional.of("<p>Страница номер 20</p>"), reopenedStore.find(20)),
+                () -> assertEquals(Optional.empty(), reopenedStore.find(7))
+        );
+        reopenedStore.close();
+    }
+
+    @Test
+    public void segmentsWithoutLivePagesAreRemovedTest() throws IOException {
+        SegmentFilePageContentStore store = createStore(64);
+        for (int pageId = 1; pageId <= 20; pageId++) {
+            store.save(pageId, "<p>Страница номер " + pageId + "</p>");
+        }
+        long segmentsCount = countSegments();
+        for (int pageId = 1; pageId < 20; pageId++) {
+            store.delete(pageId);
+        }
+        assertTrue(countSegments() < segmentsCount);
+        assertEquals(Optional.of("<p>Страница номер 20</p>"), store.find(20));
+        store.close();
+
+        SegmentFilePageContentStore reopenedStore = createStore(64);
+        assertAll(
+                () -> assertEquals(Optional.of("<p>Страница номер 20</p>"), reopenedStore.find(20)),
+                () -> assertEquals(Optional.empty(), reopenedStore.find(1)),
+                () -> assertEquals(Optional.empty(), reopenedStore.find(19))
+        );
+        reopenedStore.close();
+    }
+
+    @Test
+    public void sparseSegmentsAreCompactedTest() throws IOException {
+        SegmentFilePageContentStore store = createStore(256);
+        for (int pageId = 1; pageId <= 60; pageId++) {
+            store.save(pageId, "<p>Страница номер " + pageId + "</p>");
+        }
+        long storeSize = getStoreSize();
+        for (int pageId = 1; pageId <= 60; pageId++) {
+            if (pageId % 3 != 0) {
+                store.delete(pageId);
+            }
+        }
+        assertTrue(getStoreSize() < storeSize);
+        store.close();
+
+        SegmentFilePageContentStore reopenedStore = createStore(256);
+        for (int pageId = 1; pageId <= 60; pageId++) {
+            Optional<String> expected = pageId % 3 == 0 ?
+                    Optional.of("<p>Страница номер " + pageId + "</p>") :
+                    Optional.empty();
+            assertEquals(expected, reopenedStore.find(pageId));
+        }
+        reopenedStore.close();
+    }
+
+    private long countSegments() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private long getStoreSize() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private SegmentFilePageContentStore createStore(long segmentSize) throws IOException {
+        ContentStoreConfig config = new ContentStoreConfig();
+        config.setPath(directory.toString());
+        config.setSegmentSize(segmentSize);
+        return new SegmentFilePageContentStore(config, new CompressionUtils());
+    }
+}
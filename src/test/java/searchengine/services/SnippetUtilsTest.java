@@ -0,0 +1,58 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import searchengine.config.SearchConfig;
+import searchengine.utils.Lemmatizer;
+import searchengine.utils.MorphologyCache;
+import searchengine.utils.SnippetUtils;
+import searchengine.utils.TextUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnippetUtilsTest {
+    private static Lemmatizer lemmatizer;
+    private static SnippetUtils snippetUtils;
+
+    @BeforeAll
+    static void createSnippetUtils() throws IOException {
+        TextUtils textUtils = new TextUtils();
+        lemmatizer = new Lemmatizer(textUtils, new MorphologyCache(new SearchConfig()));
+        snippetUtils = new SnippetUtils(textUtils, lemmatizer);
+    }
+
+    @Test
+    public void getSnippetHighlightsQueryWordsTest() {
+        String text = "В зоопарке снова появился леопард. Посетители увидели леопарда у вольера.";
+        String snippet = snippetUtils.getSnippet(text, getQueryLemmas("леопард"));
+        assertAll(
+                () -> assertTrue(snippet.contains("<b>леопард</b>"), snippet),
+                () -> assertTrue(snippet.contains("<b>леопарда</b>"), snippet)
+        );
+    }
+
+    @Test
+    public void getSnippetWithoutMatchesReturnsTextBeginningTest() {
+        String text = "Кот спит на диване. ".repeat(20);
+        String snippet = snippetUtils.getSnippet(text, getQueryLemmas("собака"));
+        assertAll(
+                () -> assertTrue(text.startsWith(snippet)),
+                () -> assertFalse(snippet.contains("<b>")),
+                () -> assertTrue(snippet.length() <= 200)
+        );
+    }
+
+    @Test
+    public void getSnippetWithWordLongerThanSnippetTest() {
+        String longWord = "леопард".repeat(30);
+        String text = "Кот увидел " + longWord;
+        String snippet = assertDoesNotThrow(() -> snippetUtils.getSnippet(text, getQueryLemmas("кот " + longWord)));
+        assertTrue(snippet.length() <= 200, snippet);
+    }
+
+    private String[] getQueryLemmas(String query) {
+        return lemmatizer.getLemmasStatistics(query).keySet().toArray(String[]::new);
+    }
+}
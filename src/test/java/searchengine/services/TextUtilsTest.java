@@ -0,0 +1,43 @@
+package searchengine.services;
+
+import org.junit.jupiter.api.Test;
+import searchengine.utils.TextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextUtilsTest {
+    private final TextUtils textUtils = new TextUtils();
+
+    @Test
+    public void getWordsFromTextTest() {
+        assertAll(
+                () -> assertArrayEquals(new String[]{"Повторное", "появление", "леопарда"},
+                        textUtils.getWordsFromText("Повторное появление леопарда!")),
+                () -> assertArrayEquals(new String[]{"в", "году", "леопард"},
+                        textUtils.getWordsFromText("в 2023 году (leopard) -- леопард...")),
+                () -> assertArrayEquals(new String[0], textUtils.getWordsFromText("English text, 42")),
+                () -> assertArrayEquals(new String[0], textUtils.getWordsFromText(""))
+        );
+    }
+
+    @Test
+    public void forEachWordTest() {
+        String text = "<b>Кот</b>,СОБАКА";
+        List<String> words = new ArrayList<>();
+        textUtils.forEachWord(text, (start, end) -> words.add(textUtils.toLowerCase(text, start, end)));
+        assertEquals(List.of("кот", "собака"), words);
+    }
+
+    @Test
+    public void toLowerCaseTest() {
+        String text = "ЛЕОПАРД Леопард леопард";
+        assertAll(
+                () -> assertEquals("леопард", textUtils.toLowerCase(text, 0, 7)),
+                () -> assertEquals("леопард", textUtils.toLowerCase(text, 8, 15)),
+                () -> assertEquals("леопард", textUtils.toLowerCase(text, 16, 23))
+        );
+    }
+}